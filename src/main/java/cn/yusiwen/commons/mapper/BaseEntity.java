@@ -2,9 +2,14 @@ package cn.yusiwen.commons.mapper;
 
 import java.time.LocalDateTime;
 
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
+import cn.yusiwen.commons.mapper.annotation.NotColumn;
 import cn.yusiwen.commons.mapper.annotation.PrimaryKey;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -53,6 +58,18 @@ public class BaseEntity {
      */
     String updatedBy;
 
+    /**
+     * 加载时的列值快照，用于变更跟踪
+     * <p>
+     * 由 {@link ChangeTracker} 维护，不映射到数据库
+     */
+    @NotColumn
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    transient Object[] snapshot;
+
     /**
      * 构造一个新的基础实体对象。
      * <p>
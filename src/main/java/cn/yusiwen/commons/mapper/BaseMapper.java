@@ -1,24 +1,46 @@
 package cn.yusiwen.commons.mapper;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import org.apache.ibatis.annotations.InsertProvider;
+import org.apache.ibatis.annotations.Lang;
 import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.SelectProvider;
+import org.apache.ibatis.annotations.UpdateProvider;
 import org.apache.ibatis.builder.annotation.ProviderContext;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.jdbc.SQL;
+import org.apache.ibatis.reflection.TypeParameterResolver;
+import org.apache.ibatis.type.ArrayTypeHandler;
 
 import cn.yusiwen.commons.mapper.annotation.JSONColumn;
 import cn.yusiwen.commons.mapper.annotation.NotColumn;
 import cn.yusiwen.commons.mapper.annotation.PrimaryKey;
+import cn.yusiwen.commons.mapper.annotation.Projection;
 import cn.yusiwen.commons.mapper.annotation.Table;
 
 /**
@@ -58,6 +80,264 @@ public interface BaseMapper<S extends BaseEntity> {
     @InsertProvider(type = InsertWithoutPrimaryKeySqlProvider.class, method = "sql")
     void insert(S entity);
 
+    /**
+     * 使用一条多行 INSERT 语句插入一批实体对象。
+     * <p>
+     * 生成形如 {@code INSERT INTO t (a, b) VALUES (?, ?), (?, ?)} 的语句，数据库生成的主键值会按顺序回填到各实体对象的id属性中。
+     * 该方法不做分批处理，调用方需保证 {@code 实体个数 * 列数} 不超过数据库的绑定参数上限，一般应使用 {@link #insertBatch(List)}。
+     *
+     * @param entities 要插入的实体对象列表，不能为空
+     * @return 插入的行数
+     */
+    @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "id")
+    @InsertProvider(type = InsertBatchSqlProvider.class, method = "sql")
+    int insertValues(@Param("list") List<S> entities);
+
+    /**
+     * 批量插入实体对象，按 {@link Dialect#DEFAULT} 的绑定参数上限分批。
+     *
+     * @param entities 要插入的实体对象列表
+     * @return 插入的行数
+     * @see #insertBatch(List, Dialect)
+     */
+    default int insertBatch(List<S> entities) {
+        return insertBatch(entities, Dialect.DEFAULT);
+    }
+
+    /**
+     * 批量插入实体对象。
+     * <p>
+     * 按方言的绑定参数上限将列表切分为若干批，每批使用一条多行 INSERT 语句插入（参见 {@link #insertValues(List)}）， 数据库生成的主键值会回填到各实体对象的id属性中。
+     * 注意：Oracle 23c 以前的版本不支持多行 VALUES 语法。
+     *
+     * @param entities 要插入的实体对象列表
+     * @param dialect 数据库方言，用于确定每批的行数
+     * @return 插入的行数
+     */
+    default int insertBatch(List<S> entities, Dialect dialect) {
+        if (CollectionUtil.isEmpty(entities)) {
+            return 0;
+        }
+        TableInfo table = BaseSqlProviderSupport.tableInfo(this);
+        int count = 0;
+        for (List<S> chunk : CollectionUtil.partition(entities,
+            dialect.maxRows(table.fieldsWithoutPrimaryKey.length))) {
+            count += insertValues(chunk);
+        }
+        return count;
+    }
+
+    /**
+     * 使用一条多行 INSERT 语句插入一批实体对象，值为null的字段不写入，由数据库填充列的默认值。
+     * <p>
+     * 列表中任一实体的字段不为null时，该字段对应的列对所有实体写入。支持 {@code RETURNING} 的方言（参见
+     * {@link Dialect#supportsReturning()}）生成 {@code INSERT ... RETURNING} 语句。主键总是回填到实体对象中，
+     * 其他列只有在mapper通过 {@link MapperSqlCompiler} 注册、且数据库支持 {@code RETURNING} 或返回任意生成列时才会回填。
+     * 一般应使用 {@link #insertReturning(BaseEntity, Dialect)} 或 {@link #insertBatchReturning(List, Dialect)}。
+     *
+     * @param entities 要插入的实体对象列表，不能为空
+     * @param dialect 生成SQL使用的数据库方言，为null时由MyBatis的databaseId确定
+     * @return 插入的行数
+     */
+    @Options(useGeneratedKeys = true, keyProperty = "id", keyColumn = "id")
+    @InsertProvider(type = InsertReturningSqlProvider.class, method = "sql")
+    int insertValuesReturning(@Param("list") List<S> entities, @Param("dialect") Dialect dialect);
+
+    /**
+     * 插入实体对象，并将数据库生成的主键和列默认值回填到实体对象中，参见 {@link #insertBatchReturning(List, Dialect)}。
+     *
+     * @param entity 要插入的实体对象
+     * @param dialect 数据库方言
+     */
+    default void insertReturning(S entity, Dialect dialect) {
+        insertBatchReturning(Collections.singletonList(entity), dialect);
+    }
+
+    /**
+     * 批量插入实体对象，并将数据库生成的主键和列默认值回填到各实体对象中。
+     * <p>
+     * 值为null的字段不写入，由数据库填充列的默认值（如 {@code created_time default now()}）。实体按非null字段的组合分组，
+     * 每组按方言的绑定参数上限分批，每批的行数为2的幂（参见 {@link InsertReturningSqlProvider#split(List, int)}），
+     * 使用一条多行 INSERT 语句插入（参见 {@link #insertValuesReturning(List, Dialect)}）。
+     * <p>
+     * PostgreSQL和openGauss使用 {@code INSERT ... RETURNING}，H2和Oracle通过JDBC返回生成列，插入的同时取回整行，
+     * 这两种情况下mapper需要在databaseId与方言一致的配置中通过 {@link MapperSqlCompiler} 注册。没有取回整行时（如MySQL只能取回主键，
+     * 或mapper未经预编译），插入后按主键批量查询一次（参见 {@link #queryByIds(Collection, Dialect)}）回填其余字段。
+     *
+     * @param entities 要插入的实体对象列表
+     * @param dialect 数据库方言，用于生成SQL、确定每批的行数和回填方式
+     * @return 插入的行数
+     */
+    default int insertBatchReturning(List<S> entities, Dialect dialect) {
+        if (CollectionUtil.isEmpty(entities)) {
+            return 0;
+        }
+        TableInfo table = BaseSqlProviderSupport.tableInfo(this);
+        Map<BitSet, List<S>> groups = new LinkedHashMap<>();
+        for (S entity : entities) {
+            groups.computeIfAbsent(InsertReturningSqlProvider.mask(table, entity), k -> new ArrayList<>()).add(entity);
+        }
+        // 清除当前线程之前残留的回填标记
+        MapperSqlCompiler.rowsReturned();
+        boolean returned = true;
+        int count = 0;
+        for (Map.Entry<BitSet, List<S>> group : groups.entrySet()) {
+            for (List<S> chunk : InsertReturningSqlProvider.split(group.getValue(),
+                dialect.maxRows(group.getKey().cardinality()))) {
+                count += insertValuesReturning(chunk, dialect);
+                returned &= MapperSqlCompiler.rowsReturned();
+            }
+        }
+        if (!returned) {
+            Map<Long, S> loaded = queryByIds(entities.stream().map(BaseEntity::getId).collect(Collectors.toList()),
+                dialect).stream().collect(Collectors.toMap(BaseEntity::getId, Function.identity()));
+            for (S entity : entities) {
+                S row = loaded.get(entity.getId());
+                if (row != null) {
+                    for (FieldAccessor accessor : table.accessorsWithoutPrimaryKey) {
+                        accessor.set(entity, accessor.get(row));
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 插入或更新实体对象：主键不存在时插入，存在时更新主键以外的所有字段。
+     * <p>
+     * PostgreSQL生成 {@code INSERT ... ON CONFLICT (pk) DO UPDATE}，
+     * openGauss和MySQL生成 {@code INSERT ... ON DUPLICATE KEY UPDATE}，H2生成 {@code MERGE INTO ... KEY (pk) VALUES}，
+     * 其他数据库（Oracle等）生成 {@code MERGE INTO ... USING}。方言由MyBatis的databaseId确定（参见 {@link Dialect#of(String)}）。
+     * 返回值的含义取决于数据库，例如MySQL插入时返回1，更新时返回2。
+     *
+     * @param entity 要插入或更新的实体对象，主键不能为空
+     * @return 影响的行数
+     */
+    @InsertProvider(type = UpsertSqlProvider.class, method = "sql")
+    int upsert(S entity);
+
+    /**
+     * 使用一条语句插入或更新一批实体对象，SQL形式同 {@link #upsert(BaseEntity)}。
+     * <p>
+     * 该方法不做分批处理，调用方需保证 {@code 实体个数 * 列数} 不超过数据库的绑定参数上限，一般应使用 {@link #upsertBatch(List, Dialect)}。
+     * 同一批中不能包含重复的主键。
+     *
+     * @param entities 要插入或更新的实体对象列表，不能为空
+     * @param dialect 生成SQL使用的数据库方言，为null时由MyBatis的databaseId确定
+     * @return 影响的行数
+     */
+    @InsertProvider(type = UpsertBatchSqlProvider.class, method = "sql")
+    int upsertValues(@Param("list") List<S> entities, @Param("dialect") Dialect dialect);
+
+    /**
+     * 批量插入或更新实体对象，SQL形式由MyBatis的databaseId确定，按 {@link Dialect#DEFAULT} 的绑定参数上限分批。
+     *
+     * @param entities 要插入或更新的实体对象列表
+     * @return 影响的行数
+     * @see #upsertBatch(List, Dialect)
+     */
+    default int upsertBatch(List<S> entities) {
+        return upsertBatch(entities, null);
+    }
+
+    /**
+     * 批量插入或更新实体对象。
+     * <p>
+     * 按方言的绑定参数上限将列表切分为若干批，每批使用一条语句插入或更新（参见 {@link #upsertValues(List, Dialect)}）。
+     * SQL形式与分批都由同一个方言确定，与MyBatis的databaseId无关。
+     *
+     * @param entities 要插入或更新的实体对象列表
+     * @param dialect 数据库方言，用于生成SQL和确定每批的行数；为null时SQL由databaseId确定，按 {@link Dialect#DEFAULT} 分批
+     * @return 影响的行数
+     */
+    default int upsertBatch(List<S> entities, Dialect dialect) {
+        if (CollectionUtil.isEmpty(entities)) {
+            return 0;
+        }
+        TableInfo table = BaseSqlProviderSupport.tableInfo(this);
+        int rows = (dialect == null ? Dialect.DEFAULT : dialect).maxRows(table.fields.length);
+        int count = 0;
+        for (List<S> chunk : CollectionUtil.partition(entities, rows)) {
+            count += upsertValues(chunk, dialect);
+        }
+        return count;
+    }
+
+    /**
+     * 根据主键更新实体对象对应记录的所有字段（主键除外），值为null的字段会被更新为NULL。
+     *
+     * @param entity 要更新的实体对象，主键不能为空
+     * @return 更新的行数
+     */
+    @UpdateProvider(type = UpdateByIdSqlProvider.class, method = "sql")
+    int updateById(S entity);
+
+    /**
+     * 根据主键更新实体对象中值不为null的字段（主键除外）。
+     * <p>
+     * 生成的SQL按非null字段的组合缓存，同一种组合只生成一次SQL。所有字段都为null时不更新任何字段，仅返回匹配的行数。
+     *
+     * @param entity 要更新的实体对象，主键不能为空
+     * @return 更新的行数
+     */
+    @UpdateProvider(type = UpdateByIdSelectiveSqlProvider.class, method = "sql")
+    int updateByIdSelective(S entity);
+
+    /**
+     * 根据主键更新实体对象中相对加载时发生变化的字段（参见 {@link ChangeTracker}），没有快照时更新所有字段。
+     * <p>
+     * 生成的SQL按变化字段的组合缓存。一般应使用 {@link #update(BaseEntity)}。
+     *
+     * @param entity 要更新的实体对象，主键不能为空
+     * @return 更新的行数
+     */
+    @UpdateProvider(type = UpdateChangedSqlProvider.class, method = "sql")
+    int updateChanged(S entity);
+
+    /**
+     * 根据主键更新实体对象的指定属性，一般应使用 {@link #updateFields(BaseEntity, Property[])}。
+     * <p>
+     * 生成的SQL按属性列表缓存。
+     *
+     * @param entity 要更新的实体对象，主键不能为空
+     * @param properties 要更新的属性名，不能包含主键
+     * @return 更新的行数
+     */
+    @UpdateProvider(type = UpdatePropertiesSqlProvider.class, method = "sql")
+    int updateProperties(@Param("entity") S entity, @Param("properties") List<String> properties);
+
+    /**
+     * 根据主键更新实体对象的指定属性，属性使用getter方法引用表示，如
+     * {@code mapper.updateFields(user, User::getName, User::getUpdatedTime)}。
+     *
+     * @param entity 要更新的实体对象，主键不能为空
+     * @param properties 要更新的属性的getter方法引用，不能包含主键
+     * @return 更新的行数
+     */
+    @SuppressWarnings("unchecked")
+    default int updateFields(S entity, Property<S, ?>... properties) {
+        return updateProperties(entity, Arrays.asList(LambdaUtil.propertyNames(properties)));
+    }
+
+    /**
+     * 根据主键更新实体对象，只写入相对加载时发生变化的字段。
+     * <p>
+     * 实体有快照（参见 {@link ChangeTracker}、{@link ChangeTrackingInterceptor}）且没有字段发生变化时不执行SQL，直接返回0；
+     * 更新后以当前值刷新快照。没有快照的实体更新所有字段。
+     *
+     * @param entity 要更新的实体对象，主键不能为空
+     * @return 更新的行数，没有变化时返回0
+     */
+    default int update(S entity) {
+        if (!ChangeTracker.isChanged(entity)) {
+            return 0;
+        }
+        int count = updateChanged(entity);
+        ChangeTracker.snapshot(entity);
+        return count;
+    }
+
     /**
      * 根据主键ID查询单条记录。
      * <p>
@@ -69,15 +349,401 @@ public interface BaseMapper<S extends BaseEntity> {
     @SelectProvider(type = SelectOneSqlProvider.class, method = "sql")
     S queryById(Long id);
 
+    /**
+     * 根据主键ID列表查询记录，ID以绑定参数传递。
+     * <p>
+     * 该方法不做分批和补齐处理，列表长度不能超过 {@link SelectByPrimaryKeyInSqlProvider#MAX_IN_SIZE}，一般应使用 {@link #queryByIds(Collection)}。
+     *
+     * @param ids 主键ID列表，不能为空
+     * @return 匹配的实体对象列表，顺序不保证与ID列表一致
+     */
+    @SelectProvider(type = SelectByPrimaryKeyInSqlProvider.class, method = "sql")
+    List<S> queryByIdList(@Param("ids") List<Long> ids);
+
+    /**
+     * 根据主键ID数组查询记录，整个数组作为一个数组参数绑定，生成 {@code WHERE id = ANY(?)}。
+     * <p>
+     * 仅适用于支持数组参数的数据库（参见 {@link Dialect#supportsArrayParameters()}），无论数组长度如何都是同一条语句。
+     *
+     * @param ids 主键ID数组，不能为空
+     * @return 匹配的实体对象列表，顺序不保证与ID数组一致
+     */
+    @SelectProvider(type = SelectByPrimaryKeyArraySqlProvider.class, method = "sql")
+    List<S> queryByIdArray(@Param("ids") Long[] ids);
+
+    /**
+     * 根据主键ID数组查询记录，结果按ID在数组中的顺序返回。
+     * <p>
+     * 仅适用于支持数组参数的数据库（参见 {@link Dialect#supportsArrayParameters()}），PostgreSQL使用 {@code unnest ... WITH ORDINALITY}
+     * 关联数组元素的序号并排序。数组中的重复ID会产生重复的结果行。
+     *
+     * @param ids 主键ID数组，不能为空
+     * @return 匹配的实体对象列表，按ID在数组中的顺序排列
+     */
+    @SelectProvider(type = SelectByPrimaryKeyArrayInOrderSqlProvider.class, method = "sql")
+    List<S> queryByIdArrayInOrder(@Param("ids") Long[] ids);
+
+    /**
+     * 根据主键ID集合批量查询记录，使用IN列表方式。
+     *
+     * @param ids 主键ID集合
+     * @return 匹配的实体对象列表，顺序不保证与ID集合一致，ID集合为空时返回空列表
+     * @see #queryByIds(Collection, Dialect)
+     */
+    default List<S> queryByIds(Collection<Long> ids) {
+        return queryByIds(ids, Dialect.DEFAULT);
+    }
+
+    /**
+     * 根据主键ID集合批量查询记录。
+     * <p>
+     * 支持数组参数的数据库将去重后的ID作为一个数组参数查询（参见 {@link #queryByIdArray(Long[])}）； 其他数据库按
+     * {@link SelectByPrimaryKeyInSqlProvider#MAX_IN_SIZE} 分批，每批的IN列表补齐到2的幂长度（参见
+     * {@link SelectByPrimaryKeyInSqlProvider#bucket(List)}），使不同长度的查询共用少数几种语句，减少数据库的硬解析。
+     *
+     * @param ids 主键ID集合
+     * @param dialect 数据库方言，用于选择查询方式
+     * @return 匹配的实体对象列表，顺序不保证与ID集合一致，ID集合为空时返回空列表
+     */
+    default List<S> queryByIds(Collection<Long> ids, Dialect dialect) {
+        if (CollectionUtil.isEmpty(ids)) {
+            return new ArrayList<>();
+        }
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (dialect.supportsArrayParameters()) {
+            return queryByIdArray(distinct.toArray(new Long[0]));
+        }
+        List<S> result = new ArrayList<>(distinct.size());
+        for (List<Long> chunk : CollectionUtil.partition(distinct, SelectByPrimaryKeyInSqlProvider.MAX_IN_SIZE)) {
+            result.addAll(queryByIdList(SelectByPrimaryKeyInSqlProvider.bucket(chunk)));
+        }
+        return result;
+    }
+
+    /**
+     * 根据主键ID集合批量查询记录，结果按ID在集合中首次出现的顺序返回。
+     * <p>
+     * 支持数组参数的数据库在数据库端排序（参见 {@link #queryByIdArrayInOrder(Long[])}），其他数据库查询后在客户端按ID顺序重排。
+     *
+     * @param ids 主键ID集合
+     * @param dialect 数据库方言，用于选择查询方式
+     * @return 匹配的实体对象列表，按ID在集合中首次出现的顺序排列，不存在的ID被忽略
+     */
+    default List<S> queryByIdsInOrder(Collection<Long> ids, Dialect dialect) {
+        if (CollectionUtil.isEmpty(ids)) {
+            return new ArrayList<>();
+        }
+        Long[] distinct = new LinkedHashSet<>(ids).toArray(new Long[0]);
+        if (dialect.supportsArrayParameters()) {
+            return queryByIdArrayInOrder(distinct);
+        }
+        Map<Long, S> entities = queryByIds(Arrays.asList(distinct), dialect).stream()
+            .collect(Collectors.toMap(BaseEntity::getId, Function.identity()));
+        return Stream.of(distinct).map(entities::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * 按主键键集分页查询，返回主键大于lastId的前limit条记录，按主键升序排列。
+     * <p>
+     * 生成 {@code WHERE id > ? ORDER BY id LIMIT ?}，查询代价与翻页深度无关，一般应使用 {@link #scanAfter(Long, int)}。
+     *
+     * @param lastId 上一页最后一条记录的主键
+     * @param limit 最多返回的记录数
+     * @return 实体对象列表
+     */
+    @SelectProvider(type = SelectAfterIdSqlProvider.class, method = "sql")
+    List<S> queryAfterId(@Param("lastId") long lastId, @Param("limit") int limit);
+
+    /**
+     * 按 {@code (created_time, id)} 键集分页查询，返回排在 {@code (lastTime, lastId)} 之后的前limit条记录。
+     * <p>
+     * 一般应使用 {@link #scanAfterCreatedTime(LocalDateTime, Long, int)}。
+     *
+     * @param lastTime 上一页最后一条记录的创建时间
+     * @param lastId 上一页最后一条记录的主键
+     * @param limit 最多返回的记录数
+     * @return 实体对象列表
+     */
+    @SelectProvider(type = SelectAfterCreatedTimeSqlProvider.class, method = "sql")
+    List<S> queryAfterCreatedTime(@Param("lastTime") LocalDateTime lastTime, @Param("lastId") long lastId,
+        @Param("limit") int limit);
+
+    /**
+     * 按 {@code (updated_time, id)} 键集分页查询，返回排在 {@code (lastTime, lastId)} 之后的前limit条记录。
+     * <p>
+     * 一般应使用 {@link #scanAfterUpdatedTime(LocalDateTime, Long, int)}。
+     *
+     * @param lastTime 上一页最后一条记录的更新时间
+     * @param lastId 上一页最后一条记录的主键
+     * @param limit 最多返回的记录数
+     * @return 实体对象列表
+     */
+    @SelectProvider(type = SelectAfterUpdatedTimeSqlProvider.class, method = "sql")
+    List<S> queryAfterUpdatedTime(@Param("lastTime") LocalDateTime lastTime, @Param("lastId") long lastId,
+        @Param("limit") int limit);
+
+    /**
+     * 按主键键集分页查询。
+     * <p>
+     * 与 {@code OFFSET} 分页不同，每页都是一次主键索引上的范围扫描，查询代价与翻页深度无关；
+     * 保存最后一条记录的主键即可从中断处继续。
+     *
+     * @param lastId 上一页最后一条记录的主键，为null时从第一条记录开始
+     * @param limit 最多返回的记录数
+     * @return 实体对象列表，按主键升序排列，返回的记录数小于limit时表示已到最后一页
+     */
+    default List<S> scanAfter(Long lastId, int limit) {
+        return queryAfterId(lastId == null ? Long.MIN_VALUE : lastId, limit);
+    }
+
+    /**
+     * 按创建时间的键集分页查询，以 {@code (created_time, id)} 为分页键，适用于按时间顺序消费的场景。
+     * <p>
+     * 创建时间为null的记录不会被返回。
+     *
+     * @param lastTime 上一页最后一条记录的创建时间，为null时从第一条记录开始
+     * @param lastId 上一页最后一条记录的主键，lastTime不为null时不能为null
+     * @param limit 最多返回的记录数
+     * @return 实体对象列表，按创建时间和主键升序排列
+     */
+    default List<S> scanAfterCreatedTime(LocalDateTime lastTime, Long lastId, int limit) {
+        return lastTime == null ? queryAfterCreatedTime(SelectAfterTimeSqlProvider.MIN_TIME, Long.MIN_VALUE, limit)
+            : queryAfterCreatedTime(lastTime, lastId, limit);
+    }
+
+    /**
+     * 按更新时间的键集分页查询，以 {@code (updated_time, id)} 为分页键，适用于增量同步等场景。
+     * <p>
+     * 更新时间为null的记录不会被返回。
+     *
+     * @param lastTime 上一页最后一条记录的更新时间，为null时从第一条记录开始
+     * @param lastId 上一页最后一条记录的主键，lastTime不为null时不能为null
+     * @param limit 最多返回的记录数
+     * @return 实体对象列表，按更新时间和主键升序排列
+     */
+    default List<S> scanAfterUpdatedTime(LocalDateTime lastTime, Long lastId, int limit) {
+        return lastTime == null ? queryAfterUpdatedTime(SelectAfterTimeSqlProvider.MIN_TIME, Long.MIN_VALUE, limit)
+            : queryAfterUpdatedTime(lastTime, lastId, limit);
+    }
+
+    /**
+     * 按主键键集分页遍历记录，每页调用一次action，直到最后一页。
+     * <p>
+     * 返回值为最后处理的记录主键，可作为下次遍历的lastId，只处理此后新增的记录。
+     *
+     * @param lastId 从主键大于lastId的记录开始遍历，为null时从第一条记录开始
+     * @param limit 每页的记录数，必须大于0
+     * @param action 每页的处理方法
+     * @return 最后处理的记录主键，没有记录时返回lastId
+     */
+    default Long scanEach(Long lastId, int limit, Consumer<List<S>> action) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be greater than 0");
+        }
+        Long last = lastId;
+        List<S> page;
+        do {
+            page = scanAfter(last, limit);
+            if (page.isEmpty()) {
+                break;
+            }
+            action.accept(page);
+            last = page.get(page.size() - 1).getId();
+        } while (page.size() == limit);
+        return last;
+    }
+
+    /**
+     * 以游标方式遍历全表，按主键升序排列。
+     * <p>
+     * 结果逐批从数据库读取，内存占用与表的大小无关。游标必须在SqlSession关闭前遍历完成，使用后应关闭。
+     * 数据库需要满足以下条件才会真正流式读取：
+     * <ul>
+     * <li>PostgreSQL和openGauss：在关闭自动提交的SqlSession中执行（{@code openSession()} 的默认行为）</li>
+     * <li>MySQL：通过 {@link MapperSqlCompiler} 注册mapper，fetchSize设置为 {@link Dialect#cursorFetchSize()}；
+     * 或在连接参数中开启 {@code useCursorFetch=true}</li>
+     * </ul>
+     *
+     * <pre>
+     * try (Cursor&lt;UserEntity&gt; cursor = mapper.scanAll()) {
+     *     cursor.forEach(user -&gt; ...);
+     * }
+     * </pre>
+     *
+     * @return 实体对象游标
+     */
+    @SelectProvider(type = SelectAllSqlProvider.class, method = "sql")
+    @Options(fetchSize = Dialect.CURSOR_FETCH_SIZE)
+    Cursor<S> scanAll();
+
+    /**
+     * 以游标方式遍历符合条件的记录，按主键升序排列。
+     * <p>
+     * 查询条件为condition中所有非null的非主键字段，各字段以等值条件组合，所有字段都为null时遍历全表。
+     * 流式读取的条件与 {@link #scanAll()} 相同。
+     *
+     * @param condition 查询条件
+     * @return 实体对象游标
+     */
+    @SelectProvider(type = SelectWhereSqlProvider.class, method = "sql")
+    @Options(fetchSize = Dialect.CURSOR_FETCH_SIZE)
+    Cursor<S> scanWhere(S condition);
+
+    /**
+     * 以游标方式遍历主键在 {@code [fromId, toId]} 范围内的记录，按主键升序排列。
+     * <p>
+     * 流式读取的条件与 {@link #scanAll()} 相同，一般通过 {@link ParallelScanner} 将全表按主键范围分段并行读取。
+     *
+     * @param fromId 主键下界（包含）
+     * @param toId 主键上界（包含）
+     * @return 实体对象游标
+     */
+    @SelectProvider(type = SelectRangeSqlProvider.class, method = "sql")
+    @Options(fetchSize = Dialect.CURSOR_FETCH_SIZE)
+    Cursor<S> scanRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * 查询最小的主键
+     *
+     * @return 最小的主键，表为空时返回null
+     */
+    @SelectProvider(type = SelectMinIdSqlProvider.class, method = "sql")
+    Long queryMinId();
+
+    /**
+     * 查询最大的主键
+     *
+     * @return 最大的主键，表为空时返回null
+     */
+    @SelectProvider(type = SelectMaxIdSqlProvider.class, method = "sql")
+    Long queryMaxId();
+
+    /**
+     * 查询指定主键的记录是否存在，只查询常量，不读取和映射任何列。
+     * <p>
+     * 一般应使用 {@link #existsById(Long)}。
+     *
+     * @param id 主键ID
+     * @return 记录存在时返回1，否则返回null
+     */
+    @SelectProvider(type = ExistsByIdSqlProvider.class, method = "sql")
+    Integer queryOneById(Long id);
+
+    /**
+     * 查询指定主键的记录是否存在
+     *
+     * @param id 主键ID
+     * @return 记录存在时返回true
+     */
+    default boolean existsById(Long id) {
+        return id != null && queryOneById(id) != null;
+    }
+
+    /**
+     * 查询表的记录数
+     *
+     * @return 记录数
+     */
+    @SelectProvider(type = CountAllSqlProvider.class, method = "sql")
+    long countAll();
+
+    /**
+     * 按查询条件查询，条件的构造方式参见 {@link Criteria}。
+     * <p>
+     * 生成的SQL按条件的形态缓存，并由 {@link ShapeCachingLanguageDriver} 缓存解析结果，相同形态的查询不再拼接和解析SQL。
+     *
+     * @param criteria 查询条件
+     * @return 符合条件的记录
+     */
+    @Lang(ShapeCachingLanguageDriver.class)
+    @SelectProvider(type = SelectByCriteriaSqlProvider.class, method = "sql")
+    List<S> queryByCriteria(Criteria criteria);
+
+    /**
+     * 查询符合条件的记录数，忽略条件中的排序和行数限制
+     *
+     * @param criteria 查询条件
+     * @return 记录数
+     */
+    @Lang(ShapeCachingLanguageDriver.class)
+    @SelectProvider(type = CountByCriteriaSqlProvider.class, method = "sql")
+    long countByCriteria(Criteria criteria);
+
+    /**
+     * 查询ID列表中存在的主键，只查询主键列。
+     * <p>
+     * 列表长度不能超过 {@link SelectByPrimaryKeyInSqlProvider#MAX_IN_SIZE}，一般应使用 {@link #existsByIds(long[], Dialect)}。
+     *
+     * @param ids 主键ID列表，不能为空
+     * @return 存在的主键
+     */
+    @SelectProvider(type = SelectIdByPrimaryKeyInSqlProvider.class, method = "sql")
+    List<Long> queryIdList(@Param("ids") List<Long> ids);
+
+    /**
+     * 查询ID数组中存在的主键，只查询主键列，整个数组作为一个数组参数绑定。
+     * <p>
+     * 仅适用于支持数组参数的数据库（参见 {@link Dialect#supportsArrayParameters()}）。
+     *
+     * @param ids 主键ID数组，不能为空
+     * @return 存在的主键
+     */
+    @SelectProvider(type = SelectIdByPrimaryKeyArraySqlProvider.class, method = "sql")
+    List<Long> queryIdArray(@Param("ids") Long[] ids);
+
+    /**
+     * 批量查询主键对应的记录是否存在，使用IN列表方式。
+     *
+     * @param ids 主键ID数组
+     * @return 与ids下标对应的位图，第i位为1表示ids[i]对应的记录存在
+     * @see #existsByIds(long[], Dialect)
+     */
+    default BitSet existsByIds(long[] ids) {
+        return existsByIds(ids, Dialect.DEFAULT);
+    }
+
+    /**
+     * 批量查询主键对应的记录是否存在。
+     * <p>
+     * 只查询主键列，查询方式与 {@link #queryByIds(Collection, Dialect)} 相同。
+     *
+     * @param ids 主键ID数组
+     * @param dialect 数据库方言，用于选择查询方式
+     * @return 与ids下标对应的位图，第i位为1表示ids[i]对应的记录存在
+     */
+    default BitSet existsByIds(long[] ids, Dialect dialect) {
+        BitSet exists = new BitSet(ids.length);
+        if (ids.length == 0) {
+            return exists;
+        }
+        List<Long> distinct = LongStream.of(ids).distinct().boxed().collect(Collectors.toList());
+        List<Long> found;
+        if (dialect.supportsArrayParameters()) {
+            found = queryIdArray(distinct.toArray(new Long[0]));
+        } else {
+            found = new ArrayList<>(distinct.size());
+            for (List<Long> chunk : CollectionUtil.partition(distinct, SelectByPrimaryKeyInSqlProvider.MAX_IN_SIZE)) {
+                found.addAll(queryIdList(SelectByPrimaryKeyInSqlProvider.bucket(chunk)));
+            }
+        }
+        long[] sorted = found.stream().mapToLong(Long::longValue).sorted().toArray();
+        for (int i = 0; i < ids.length; i++) {
+            if (Arrays.binarySearch(sorted, ids[i]) >= 0) {
+                exists.set(i);
+            }
+        }
+        return exists;
+    }
+
     /**
      * 插入provider
      */
-    class InsertSqlProvider extends BaseSqlProviderSupport {
+    class InsertSqlProvider extends StaticSqlProviderSupport {
 
         /**
          * 构造一个新的插入SQL提供者实例。
          * <p>
-         * 该构造函数创建一个用于生成INSERT SQL语句的提供者对象。 它继承自BaseSqlProviderSupport，用于处理通用的SQL生成逻辑。
+         * 该构造函数创建一个用于生成INSERT SQL语句的提供者对象。 它继承自StaticSqlProviderSupport，用于处理通用的SQL生成逻辑。
          */
         public InsertSqlProvider() {
             // this constructor is empty
@@ -86,12 +752,12 @@ public interface BaseMapper<S extends BaseEntity> {
         /**
          * sql
          *
-         * @param context context
+         * @param table 表信息
+         * @param dialect 数据库方言
          * @return sql
          */
-        public String sql(ProviderContext context) {
-            TableInfo table = tableInfo(context);
-
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
             return new SQL().INSERT_INTO(table.tableName).INTO_COLUMNS(table.columns)
                 .INTO_VALUES(Stream.of(table.fields).map(TableInfo::bindParameter).toArray(String[]::new)).toString();
 
@@ -103,7 +769,7 @@ public interface BaseMapper<S extends BaseEntity> {
      * <p>
      * 此类用于生成不包含主键字段的INSERT SQL语句。主要用于那些主键由数据库自动生成的表 （例如使用自增主键的表）。它会排除实体类中标记为主键的字段，只插入其他字段的值。
      */
-    class InsertWithoutPrimaryKeySqlProvider extends BaseSqlProviderSupport {
+    class InsertWithoutPrimaryKeySqlProvider extends StaticSqlProviderSupport {
 
         /**
          * 创建一个新的InsertWithoutPrimaryKeySqlProvider实例。
@@ -115,123 +781,1343 @@ public interface BaseMapper<S extends BaseEntity> {
         }
 
         /**
-         * 生成不包含主键的INSERT SQL语句
+         * 生成不包含主键的INSERT SQL语句
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return 生成的INSERT SQL语句
+         */
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
+            return new SQL().INSERT_INTO(table.tableName).INTO_COLUMNS(table.columnsWithoutPrimaryKey)
+                .INTO_VALUES(
+                    Stream.of(table.fieldsWithoutPrimaryKey).map(TableInfo::bindParameter).toArray(String[]::new))
+                .toString();
+
+        }
+    }
+
+    /**
+     * 多行插入SQL提供者类
+     * <p>
+     * 此类用于生成不包含主键字段的多行INSERT SQL语句，每个实体对应VALUES中的一行。
+     */
+    class InsertBatchSqlProvider extends BaseSqlProviderSupport {
+
+        /**
+         * 创建一个新的InsertBatchSqlProvider实例。
+         * <p>
+         * 此构造函数用于初始化多行插入语句的SQL提供者。
+         */
+        public InsertBatchSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成不包含主键的多行INSERT SQL语句
+         *
+         * @param params 包含插入参数的Map，其中"list"键对应要插入的实体列表
+         * @param context MyBatis提供的上下文对象，包含了Mapper接口的相关信息
+         * @return 生成的INSERT SQL语句
+         */
+        public String sql(Map<String, Object> params, ProviderContext context) {
+            List<?> entities = (List<?>)params.get("list");
+            TableInfo table = tableInfo(context);
+
+            SQL sql = new SQL().INSERT_INTO(table.tableName).INTO_COLUMNS(table.columnsWithoutPrimaryKey);
+            for (int i = 0; i < entities.size(); i++) {
+                if (i > 0) {
+                    sql.ADD_ROW();
+                }
+                String prefix = "list[" + i + "].";
+                sql.INTO_VALUES(Stream.of(table.fieldsWithoutPrimaryKey).map(f -> TableInfo.bindParameter(f, prefix))
+                    .toArray(String[]::new));
+            }
+            return sql.toString();
+        }
+    }
+
+    /**
+     * 插入非null字段并返回插入行的SQL提供者类
+     */
+    class InsertReturningSqlProvider extends BaseSqlProviderSupport {
+
+        /**
+         * 创建一个新的InsertReturningSqlProvider实例。
+         */
+        public InsertReturningSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"INSERT INTO table (a, b) VALUES (?, ?), (?, ?) RETURNING id, a, b, c"的SQL语句，
+         * 不支持RETURNING的方言不带RETURNING子句。
+         * <p>
+         * 行数为2的幂时以方言、非null字段的位图和行数作为语句形态标识缓存生成的SQL，其他行数不缓存，
+         * 每个位图缓存的语句不超过 {@code log2(最大行数)} 条。所有字段都为null时只插入主键列的默认值。
+         *
+         * @param params 包含插入参数的Map，其中"list"键对应要插入的实体列表，"dialect"键对应数据库方言
+         * @param context MyBatis提供的上下文对象，包含了Mapper接口的相关信息
+         * @return 生成的INSERT SQL语句
+         */
+        public String sql(Map<String, Object> params, ProviderContext context) {
+            List<?> entities = (List<?>)params.get("list");
+            TableInfo table = tableInfo(context);
+            Dialect dialect = dialect(params, context);
+            BitSet mask = new BitSet();
+            for (Object entity : entities) {
+                mask.or(mask(table, entity));
+            }
+            int size = entities.size();
+            Function<TableInfo, String> renderer = t -> {
+                Field[] fields = mask.stream().mapToObj(i -> t.fieldsWithoutPrimaryKey[i]).toArray(Field[]::new);
+                SQL sql = new SQL().INSERT_INTO(t.tableName);
+                if (fields.length == 0) {
+                    sql.INTO_COLUMNS(t.primaryKeyColumn);
+                } else {
+                    sql.INTO_COLUMNS(Stream.of(fields).map(TableInfo::columnName).toArray(String[]::new));
+                }
+                for (int i = 0; i < size; i++) {
+                    if (i > 0) {
+                        sql.ADD_ROW();
+                    }
+                    String prefix = "list[" + i + "].";
+                    sql.INTO_VALUES(fields.length == 0 ? new String[] {"DEFAULT"}
+                        : Stream.of(fields).map(f -> TableInfo.bindParameter(f, prefix)).toArray(String[]::new));
+                }
+                return dialect.supportsReturning() ? sql + " RETURNING " + String.join(", ", t.returningColumns())
+                    : sql.toString();
+            };
+            return Integer.bitCount(size) == 1 ? table.sql("insertReturning:" + dialect + ":" + mask + ":" + size,
+                renderer) : renderer.apply(table);
+        }
+
+        /**
+         * 将列表切分为行数为2的幂的若干批：先按不超过maxRows的最大2的幂切分，剩余部分按二进制位拆分，
+         * 如maxRows为100时，200行切分为64、64、64、8行
+         *
+         * @param list 列表
+         * @param maxRows 每批的最大行数
+         * @param <T> 元素类型
+         * @return 切分后的列表，每批是原列表的视图
+         */
+        static <T> List<List<T>> split(List<T> list, int maxRows) {
+            int rows = Integer.highestOneBit(Math.max(1, maxRows));
+            List<List<T>> chunks = new ArrayList<>();
+            int from = 0;
+            while (from < list.size()) {
+                int size = Math.min(rows, Integer.highestOneBit(list.size() - from));
+                chunks.add(list.subList(from, from + size));
+                from += size;
+            }
+            return chunks;
+        }
+
+        /**
+         * 获取实体对象中非null字段（主键除外）的位图
+         *
+         * @param table 表信息
+         * @param entity 实体对象
+         * @return 位图，第i位对应 {@link TableInfo#getFieldsWithoutPrimaryKey()} 的第i个字段
+         */
+        static BitSet mask(TableInfo table, Object entity) {
+            FieldAccessor[] accessors = table.accessorsWithoutPrimaryKey;
+            BitSet mask = new BitSet(accessors.length);
+            for (int i = 0; i < accessors.length; i++) {
+                if (accessors[i].get(entity) != null) {
+                    mask.set(i);
+                }
+            }
+            return mask;
+        }
+    }
+
+    /**
+     * 插入或更新SQL提供者类
+     */
+    class UpsertSqlProvider extends StaticSqlProviderSupport {
+
+        /**
+         * 创建一个新的UpsertSqlProvider实例。
+         */
+        public UpsertSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成插入或更新单个实体的SQL语句
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return 生成的SQL语句
+         */
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
+            return upsert(table, dialect, new String[] {""});
+        }
+
+        /**
+         * 生成插入或更新多行的SQL语句
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @param prefixes 每一行绑定参数名的前缀
+         * @return 生成的SQL语句
+         */
+        static String upsert(TableInfo table, Dialect dialect, String[] prefixes) {
+            String[] updates = table.columnsWithoutPrimaryKey;
+            switch (dialect) {
+                case POSTGRESQL:
+                    return insert(table, prefixes) + " ON CONFLICT (" + table.primaryKeyColumn + ") DO UPDATE SET "
+                        + Stream.of(updates).map(c -> c + " = EXCLUDED." + c).collect(Collectors.joining(", "));
+                case OPENGAUSS:
+                    return insert(table, prefixes) + " ON DUPLICATE KEY UPDATE "
+                        + Stream.of(updates).map(c -> c + " = EXCLUDED." + c).collect(Collectors.joining(", "));
+                case MYSQL:
+                    return insert(table, prefixes) + " ON DUPLICATE KEY UPDATE "
+                        + Stream.of(updates).map(c -> c + " = VALUES(" + c + ")").collect(Collectors.joining(", "));
+                case H2:
+                    return "MERGE INTO " + table.tableName + " (" + String.join(", ", table.columns) + ") KEY ("
+                        + table.primaryKeyColumn + ") VALUES " + values(table, prefixes);
+                default:
+                    return merge(table, prefixes);
+            }
+        }
+
+        /**
+         * 生成包含主键的多行INSERT语句
+         *
+         * @param table 表信息
+         * @param prefixes 每一行绑定参数名的前缀
+         * @return INSERT语句
+         */
+        private static String insert(TableInfo table, String[] prefixes) {
+            return "INSERT INTO " + table.tableName + " (" + String.join(", ", table.columns) + ") VALUES "
+                + values(table, prefixes);
+        }
+
+        /**
+         * 生成多行VALUES列表，如 (#{id}, #{name}), (#{id}, #{name})
+         *
+         * @param table 表信息
+         * @param prefixes 每一行绑定参数名的前缀
+         * @return VALUES列表
+         */
+        private static String values(TableInfo table, String[] prefixes) {
+            return Stream.of(prefixes).map(prefix -> Stream.of(table.fields)
+                .map(f -> TableInfo.bindParameter(f, prefix)).collect(Collectors.joining(", ", "(", ")")))
+                .collect(Collectors.joining(", "));
+        }
+
+        /**
+         * 生成MERGE语句，如 MERGE INTO t USING (SELECT #{id} AS id, #{name} AS name FROM dual) s ON (t.id = s.id)
+         * WHEN MATCHED THEN UPDATE SET t.name = s.name WHEN NOT MATCHED THEN INSERT (id, name) VALUES (s.id, s.name)
+         *
+         * @param table 表信息
+         * @param prefixes 每一行绑定参数名的前缀
+         * @return MERGE语句
+         */
+        private static String merge(TableInfo table, String[] prefixes) {
+            String source = Stream.of(prefixes)
+                .map(prefix -> IntStream.range(0, table.fields.length)
+                    .mapToObj(i -> TableInfo.bindParameter(table.fields[i], prefix) + " AS " + table.columns[i])
+                    .collect(Collectors.joining(", ", "SELECT ", " FROM dual")))
+                .collect(Collectors.joining(" UNION ALL "));
+            return "MERGE INTO " + table.tableName + " t USING (" + source + ") s ON (t." + table.primaryKeyColumn
+                + " = s." + table.primaryKeyColumn + ") WHEN MATCHED THEN UPDATE SET "
+                + Stream.of(table.columnsWithoutPrimaryKey).map(c -> "t." + c + " = s." + c)
+                    .collect(Collectors.joining(", "))
+                + " WHEN NOT MATCHED THEN INSERT (" + String.join(", ", table.columns) + ") VALUES ("
+                + Stream.of(table.columns).map(c -> "s." + c).collect(Collectors.joining(", ")) + ")";
+        }
+    }
+
+    /**
+     * 多行插入或更新SQL提供者类
+     */
+    class UpsertBatchSqlProvider extends BaseSqlProviderSupport {
+
+        /**
+         * 创建一个新的UpsertBatchSqlProvider实例。
+         */
+        public UpsertBatchSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成插入或更新多个实体的SQL语句
+         *
+         * @param params 包含参数的Map，其中"list"键对应实体列表，"dialect"键对应数据库方言
+         * @param context MyBatis提供的上下文对象，包含了Mapper接口的相关信息
+         * @return 生成的SQL语句
+         */
+        public String sql(Map<String, Object> params, ProviderContext context) {
+            int size = ((List<?>)params.get("list")).size();
+            return UpsertSqlProvider.upsert(tableInfo(context), dialect(params, context),
+                IntStream.range(0, size).mapToObj(i -> "list[" + i + "].").toArray(String[]::new));
+        }
+    }
+
+    /**
+     * 根据主键更新所有字段
+     */
+    class UpdateByIdSqlProvider extends StaticSqlProviderSupport {
+
+        /**
+         * 创建一个新的UpdateByIdSqlProvider实例。
+         */
+        public UpdateByIdSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"UPDATE table SET a = #{a}, b = #{b} WHERE id = #{id}"的SQL语句
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return 生成的UPDATE SQL语句
+         */
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
+            return update(table, table.fieldsWithoutPrimaryKey);
+        }
+
+        /**
+         * 生成更新指定字段的UPDATE SQL语句，没有需要更新的字段时将主键更新为自身
+         *
+         * @param table 表信息
+         * @param fields 需要更新的字段
+         * @return 生成的UPDATE SQL语句
+         */
+        static String update(TableInfo table, Field[] fields) {
+            String[] sets = fields.length == 0 ? new String[] {table.primaryKeyColumn + " = " + table.primaryKeyColumn}
+                : Stream.of(fields).map(TableInfo::assignParameter).toArray(String[]::new);
+            return new SQL().UPDATE(table.tableName).SET(sets).WHERE(table.getPrimaryKeyWhere()).toString();
+        }
+    }
+
+    /**
+     * 根据主键更新非null字段
+     */
+    class UpdateByIdSelectiveSqlProvider extends BaseSqlProviderSupport {
+
+        /**
+         * 创建一个新的UpdateByIdSelectiveSqlProvider实例。
+         */
+        public UpdateByIdSelectiveSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成只更新非null字段的UPDATE SQL语句。
+         * <p>
+         * 以非null字段的位图作为语句形态标识缓存生成的SQL。
+         *
+         * @param entity 要更新的实体对象
+         * @param context MyBatis提供的上下文对象，包含了Mapper接口的相关信息
+         * @return 生成的UPDATE SQL语句
+         */
+        public String sql(Object entity, ProviderContext context) {
+            TableInfo table = tableInfo(context);
+            Field[] fields = table.fieldsWithoutPrimaryKey;
+            FieldAccessor[] accessors = table.accessorsWithoutPrimaryKey;
+            BitSet mask = new BitSet(fields.length);
+            for (int i = 0; i < fields.length; i++) {
+                if (accessors[i].get(entity) != null) {
+                    mask.set(i);
+                }
+            }
+            return table.sql("updateByIdSelective:" + mask, t -> UpdateByIdSqlProvider.update(t,
+                mask.stream().mapToObj(i -> fields[i]).toArray(Field[]::new)));
+        }
+    }
+
+    /**
+     * 根据主键更新发生变化的字段
+     */
+    class UpdateChangedSqlProvider extends BaseSqlProviderSupport {
+
+        /**
+         * 创建一个新的UpdateChangedSqlProvider实例。
+         */
+        public UpdateChangedSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成只更新变化字段的UPDATE SQL语句。
+         * <p>
+         * 以实体类型和变化字段的位图作为语句形态标识缓存生成的SQL。
+         *
+         * @param entity 要更新的实体对象
+         * @param context MyBatis提供的上下文对象，包含了Mapper接口的相关信息
+         * @return 生成的UPDATE SQL语句
+         */
+        public String sql(BaseEntity entity, ProviderContext context) {
+            BitSet mask = ChangeTracker.changedMask(entity);
+            return tableInfo(context).sql("updateChanged:" + entity.getClass().getName() + mask,
+                t -> UpdateByIdSqlProvider.update(t, ChangeTracker.changedFields(entity)));
+        }
+    }
+
+    /**
+     * 根据主键更新指定属性
+     */
+    class UpdatePropertiesSqlProvider extends BaseSqlProviderSupport {
+
+        /**
+         * 创建一个新的UpdatePropertiesSqlProvider实例。
+         */
+        public UpdatePropertiesSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"UPDATE table SET a = #{entity.a} WHERE id = #{entity.id}"的SQL语句，生成的SQL按属性列表缓存
+         *
+         * @param params 包含"entity"（实体对象）和"properties"（属性名列表）的Map
+         * @param context MyBatis提供的上下文对象，包含了Mapper接口的相关信息
+         * @return 生成的UPDATE SQL语句
+         */
+        public String sql(Map<String, Object> params, ProviderContext context) {
+            List<?> properties = (List<?>)params.get("properties");
+            if (properties.isEmpty()) {
+                throw new IllegalArgumentException("没有需要更新的属性.");
+            }
+            return tableInfo(context).sql("updateProperties:" + properties, table -> {
+                List<Field> updates = Arrays.asList(table.fieldsWithoutPrimaryKey);
+                Field[] fields = new Field[properties.size()];
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = table.field((String)properties.get(i));
+                    if (!updates.contains(fields[i])) {
+                        throw new IllegalArgumentException("不能更新主键" + fields[i].getName() + ".");
+                    }
+                }
+                return new SQL().UPDATE(table.tableName)
+                    .SET(Stream.of(fields).map(field -> TableInfo.columnName(field) + " = "
+                        + TableInfo.bindParameter(field, "entity.")).toArray(String[]::new))
+                    .WHERE(table.primaryKeyColumn + " = #{entity." + table.primaryKeyColumn + "}").toString();
+            });
+        }
+    }
+
+    /**
+     * 单条数据查询
+     */
+    class SelectOneSqlProvider extends StaticSqlProviderSupport {
+
+        /**
+         * 创建一个新的SelectOneSqlProvider实例。
+         * <p>
+         * 此构造函数用于初始化单条数据查询的SQL提供者。 主要用于生成查询单条记录的SQL语句。
+         */
+        public SelectOneSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * sql
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return sql
+         */
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
+            return new SQL().SELECT(table.selectColumns).FROM(table.tableName).WHERE(table.getPrimaryKeyWhere())
+                .toString();
+        }
+    }
+
+    /**
+     * 根据id列表查询
+     */
+    class SelectByPrimaryKeyInSqlProvider extends BaseSqlProviderSupport {
+
+        /**
+         * 创建一个新的SelectByPrimaryKeyInSqlProvider实例。
+         * <p>
+         * 此构造函数用于初始化批量主键查询的SQL提供者。 主要用于生成根据ID列表进行批量查询的SQL语句。
+         */
+        public SelectByPrimaryKeyInSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 单条语句中IN列表的最大长度，超过时需要分批查询
+         */
+        public static final int MAX_IN_SIZE = 512;
+
+        /**
+         * 生成根据主键ID列表进行批量查询的SQL语句
+         * <p>
+         * 该方法用于构建一个SELECT语句，可以同时查询多个指定ID的记录。 它将生成类似"SELECT ... FROM table WHERE id IN (#{ids[0]}, #{ids[1]})"的SQL语句，
+         * ID均以绑定参数传递，相同长度的ID列表生成相同的SQL，生成的SQL按列表长度缓存。
+         *
+         * @param params 包含查询参数的Map，其中"ids"键对应要查询的ID列表
+         * @param context MyBatis提供的上下文对象，包含Mapper接口的相关信息
+         * @return 生成的SELECT SQL语句
+         */
+        public String sql(Map<String, Object> params, ProviderContext context) {
+            int size = ((List<?>)params.get("ids")).size();
+            return tableInfo(context).sql("selectByPrimaryKeyIn:" + size, table -> new SQL()
+                .SELECT(table.selectColumns).FROM(table.tableName).WHERE(primaryKeyIn(table, size)).toString());
+        }
+
+        /**
+         * 生成形如"id IN (#{ids[0]}, #{ids[1]})"的查询条件，ID列表对应的参数名为"ids"
+         *
+         * @param table 表信息
+         * @param size ID列表长度
+         * @return 查询条件
+         */
+        static String primaryKeyIn(TableInfo table, int size) {
+            return table.primaryKeyColumn + " IN ("
+                + IntStream.range(0, size).mapToObj(i -> "#{ids[" + i + "]}").collect(Collectors.joining(", ")) + ")";
+        }
+
+        /**
+         * 将ID列表补齐到不小于其长度的2的幂，补齐部分重复最后一个ID。
+         * <p>
+         * 补齐后IN列表的长度只有少数几种，数据库和驱动的预编译语句缓存、执行计划缓存可以被复用。
+         *
+         * @param ids ID列表，长度不能超过 {@link #MAX_IN_SIZE}
+         * @return 补齐后的ID列表
+         */
+        public static List<Long> bucket(List<Long> ids) {
+            int size = ids.size();
+            int bucket = Integer.highestOneBit(size) == size ? size : Integer.highestOneBit(size) << 1;
+            if (bucket == size) {
+                return ids;
+            }
+            List<Long> padded = new ArrayList<>(bucket);
+            padded.addAll(ids);
+            Long last = ids.get(size - 1);
+            while (padded.size() < bucket) {
+                padded.add(last);
+            }
+            return padded;
+        }
+    }
+
+    /**
+     * 根据主键ID数组查询，ID数组作为一个数组参数绑定
+     */
+    class SelectByPrimaryKeyArraySqlProvider extends StaticSqlProviderSupport {
+
+        /**
+         * ID数组参数，使用 {@link ArrayTypeHandler} 绑定为JDBC数组
+         */
+        static final String IDS_ARRAY_PARAMETER = "#{ids,typeHandler=" + ArrayTypeHandler.class.getName() + "}";
+
+        /**
+         * 创建一个新的SelectByPrimaryKeyArraySqlProvider实例。
+         */
+        public SelectByPrimaryKeyArraySqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 仅支持数组参数的数据库
+         *
+         * @param dialect 数据库方言
+         * @return 是否支持该方言
+         */
+        @Override
+        protected boolean supports(Dialect dialect) {
+            return dialect.supportsArrayParameters();
+        }
+
+        /**
+         * 生成形如"SELECT ... FROM table WHERE id = ANY(?)"的SQL语句
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return 生成的SELECT SQL语句
+         */
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
+            return new SQL().SELECT(table.selectColumns).FROM(table.tableName)
+                .WHERE(table.primaryKeyColumn + " = ANY(" + IDS_ARRAY_PARAMETER + ")").toString();
+        }
+    }
+
+    /**
+     * 根据主键ID数组查询，结果按ID在数组中的顺序返回
+     */
+    class SelectByPrimaryKeyArrayInOrderSqlProvider extends StaticSqlProviderSupport {
+
+        /**
+         * 创建一个新的SelectByPrimaryKeyArrayInOrderSqlProvider实例。
+         */
+        public SelectByPrimaryKeyArrayInOrderSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 仅支持数组参数的数据库
+         *
+         * @param dialect 数据库方言
+         * @return 是否支持该方言
+         */
+        @Override
+        protected boolean supports(Dialect dialect) {
+            return dialect.supportsArrayParameters();
+        }
+
+        /**
+         * 生成按数组顺序返回结果的SQL语句。
+         * <p>
+         * PostgreSQL生成
+         * "SELECT t.* FROM unnest(?) WITH ORDINALITY AS k(id, ord) JOIN table t ON t.id = k.id ORDER BY k.ord"；
+         * openGauss不支持 {@code WITH ORDINALITY}，使用 {@code generate_subscripts} 生成数组下标。
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return 生成的SELECT SQL语句
+         */
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
+            String[] columns = Stream.of(table.selectColumns).map(column -> "t." + column).toArray(String[]::new);
+            String array = SelectByPrimaryKeyArraySqlProvider.IDS_ARRAY_PARAMETER;
+            if (dialect == Dialect.OPENGAUSS) {
+                return new SQL().SELECT(columns).FROM("generate_subscripts(" + array + ", 1) AS k(ord)")
+                    .INNER_JOIN(table.tableName + " t ON t." + table.primaryKeyColumn + " = (" + array + ")[k.ord]")
+                    .ORDER_BY("k.ord").toString();
+            }
+            return new SQL().SELECT(columns).FROM("unnest(" + array + ") WITH ORDINALITY AS k(id, ord)")
+                .INNER_JOIN(table.tableName + " t ON t." + table.primaryKeyColumn + " = k.id").ORDER_BY("k.ord")
+                .toString();
+        }
+    }
+
+    /**
+     * 全表查询
+     */
+    class SelectAllSqlProvider extends StaticSqlProviderSupport {
+
+        /**
+         * 创建一个新的SelectAllSqlProvider实例。
+         */
+        public SelectAllSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"SELECT ... FROM table ORDER BY id"的SQL语句
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return 生成的SELECT SQL语句
+         */
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
+            return new SQL().SELECT(table.selectColumns).FROM(table.tableName).ORDER_BY(table.primaryKeyColumn)
+                .toString();
+        }
+    }
+
+    /**
+     * 按主键范围查询
+     */
+    class SelectRangeSqlProvider extends StaticSqlProviderSupport {
+
+        /**
+         * 创建一个新的SelectRangeSqlProvider实例。
+         */
+        public SelectRangeSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"SELECT ... FROM table WHERE id &gt;= ? AND id &lt;= ? ORDER BY id"的SQL语句
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return 生成的SELECT SQL语句
+         */
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
+            return new SQL().SELECT(table.selectColumns).FROM(table.tableName)
+                .WHERE(table.primaryKeyColumn + " >= #{fromId}", table.primaryKeyColumn + " <= #{toId}")
+                .ORDER_BY(table.primaryKeyColumn).toString();
+        }
+    }
+
+    /**
+     * 查询最小主键
+     */
+    class SelectMinIdSqlProvider extends StaticSqlProviderSupport {
+
+        /**
+         * 创建一个新的SelectMinIdSqlProvider实例。
+         */
+        public SelectMinIdSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"SELECT MIN(id) FROM table"的SQL语句
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return 生成的SELECT SQL语句
+         */
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
+            return new SQL().SELECT("MIN(" + table.primaryKeyColumn + ")").FROM(table.tableName).toString();
+        }
+    }
+
+    /**
+     * 查询最大主键
+     */
+    class SelectMaxIdSqlProvider extends StaticSqlProviderSupport {
+
+        /**
+         * 创建一个新的SelectMaxIdSqlProvider实例。
+         */
+        public SelectMaxIdSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"SELECT MAX(id) FROM table"的SQL语句
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return 生成的SELECT SQL语句
+         */
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
+            return new SQL().SELECT("MAX(" + table.primaryKeyColumn + ")").FROM(table.tableName).toString();
+        }
+    }
+
+    /**
+     * 查询主键是否存在
+     */
+    class ExistsByIdSqlProvider extends StaticSqlProviderSupport {
+
+        /**
+         * 创建一个新的ExistsByIdSqlProvider实例。
+         */
+        public ExistsByIdSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"SELECT 1 FROM table WHERE id = ? LIMIT 1"的SQL语句
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return 生成的SELECT SQL语句
+         */
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
+            return limit(new SQL().SELECT("1").FROM(table.tableName).WHERE(table.getPrimaryKeyWhere()), dialect, "1")
+                .toString();
+        }
+    }
+
+    /**
+     * 查询记录数
+     */
+    class CountAllSqlProvider extends StaticSqlProviderSupport {
+
+        /**
+         * 创建一个新的CountAllSqlProvider实例。
+         */
+        public CountAllSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"SELECT COUNT(*) FROM table"的SQL语句
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return 生成的SELECT SQL语句
+         */
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
+            return new SQL().SELECT("COUNT(*)").FROM(table.tableName).toString();
+        }
+    }
+
+    /**
+     * 按查询条件查询
+     */
+    class SelectByCriteriaSqlProvider extends BaseSqlProviderSupport {
+
+        /**
+         * 创建一个新的SelectByCriteriaSqlProvider实例。
+         */
+        public SelectByCriteriaSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"SELECT * FROM table WHERE name = ? AND created_time > ? ORDER BY id LIMIT ?"的SQL语句，生成的SQL按条件的形态缓存
+         *
+         * @param criteria 查询条件
+         * @param context MyBatis提供的上下文对象，包含Mapper接口的相关信息
+         * @return 生成的SELECT SQL语句
+         */
+        public String sql(Criteria criteria, ProviderContext context) {
+            Dialect dialect = Dialect.of(context.getDatabaseId());
+            return tableInfo(context).sql("selectByCriteria:" + dialect + ":" + criteria.shape(), table -> {
+                String[] columns = criteria.selectColumns(table);
+                SQL sql = criteria.apply(new SQL().SELECT(columns == null ? table.selectColumns : columns)
+                    .FROM(table.tableName), table, true);
+                return (criteria.getLimit() == null ? sql : limit(sql, dialect, "#{limit}")).toString();
+            });
+        }
+    }
+
+    /**
+     * 按查询条件查询记录数
+     */
+    class CountByCriteriaSqlProvider extends BaseSqlProviderSupport {
+
+        /**
+         * 创建一个新的CountByCriteriaSqlProvider实例。
+         */
+        public CountByCriteriaSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"SELECT COUNT(*) FROM table WHERE name = ?"的SQL语句，生成的SQL按条件的形态缓存
+         *
+         * @param criteria 查询条件
+         * @param context MyBatis提供的上下文对象，包含Mapper接口的相关信息
+         * @return 生成的SELECT SQL语句
+         */
+        public String sql(Criteria criteria, ProviderContext context) {
+            return tableInfo(context).sql("countByCriteria:" + criteria.shape(),
+                table -> criteria.apply(new SQL().SELECT("COUNT(*)").FROM(table.tableName), table, false).toString());
+        }
+    }
+
+    /**
+     * 根据id列表查询存在的主键
+     */
+    class SelectIdByPrimaryKeyInSqlProvider extends BaseSqlProviderSupport {
+
+        /**
+         * 创建一个新的SelectIdByPrimaryKeyInSqlProvider实例。
+         */
+        public SelectIdByPrimaryKeyInSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"SELECT id FROM table WHERE id IN (?, ?)"的SQL语句，生成的SQL按列表长度缓存
+         *
+         * @param params 包含查询参数的Map，其中"ids"键对应要查询的ID列表
+         * @param context MyBatis提供的上下文对象，包含Mapper接口的相关信息
+         * @return 生成的SELECT SQL语句
+         */
+        public String sql(Map<String, Object> params, ProviderContext context) {
+            int size = ((List<?>)params.get("ids")).size();
+            return tableInfo(context).sql("selectIdByPrimaryKeyIn:" + size,
+                table -> new SQL().SELECT(table.primaryKeyColumn).FROM(table.tableName)
+                    .WHERE(SelectByPrimaryKeyInSqlProvider.primaryKeyIn(table, size)).toString());
+        }
+    }
+
+    /**
+     * 根据主键ID数组查询存在的主键，ID数组作为一个数组参数绑定
+     */
+    class SelectIdByPrimaryKeyArraySqlProvider extends StaticSqlProviderSupport {
+
+        /**
+         * 创建一个新的SelectIdByPrimaryKeyArraySqlProvider实例。
+         */
+        public SelectIdByPrimaryKeyArraySqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 仅支持数组参数的数据库
+         *
+         * @param dialect 数据库方言
+         * @return 是否支持该方言
+         */
+        @Override
+        protected boolean supports(Dialect dialect) {
+            return dialect.supportsArrayParameters();
+        }
+
+        /**
+         * 生成形如"SELECT id FROM table WHERE id = ANY(?)"的SQL语句
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return 生成的SELECT SQL语句
+         */
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
+            return new SQL().SELECT(table.primaryKeyColumn).FROM(table.tableName).WHERE(table.primaryKeyColumn
+                + " = ANY(" + SelectByPrimaryKeyArraySqlProvider.IDS_ARRAY_PARAMETER + ")").toString();
+        }
+    }
+
+    /**
+     * 按非null字段等值条件查询
+     */
+    class SelectWhereSqlProvider extends BaseSqlProviderSupport {
+
+        /**
+         * 创建一个新的SelectWhereSqlProvider实例。
+         */
+        public SelectWhereSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成以非null字段为等值条件的SELECT SQL语句。
+         * <p>
+         * 以非null字段的位图作为语句形态标识缓存生成的SQL。
+         *
+         * @param condition 查询条件
+         * @param context MyBatis提供的上下文对象，包含了Mapper接口的相关信息
+         * @return 生成的SELECT SQL语句
+         */
+        public String sql(Object condition, ProviderContext context) {
+            TableInfo table = tableInfo(context);
+            Field[] fields = table.fieldsWithoutPrimaryKey;
+            FieldAccessor[] accessors = table.accessorsWithoutPrimaryKey;
+            BitSet mask = new BitSet(fields.length);
+            for (int i = 0; i < fields.length; i++) {
+                if (accessors[i].get(condition) != null) {
+                    mask.set(i);
+                }
+            }
+            return table.sql("selectWhere:" + mask,
+                t -> new SQL().SELECT(t.selectColumns).FROM(t.tableName)
+                    .WHERE(mask.stream().mapToObj(i -> TableInfo.assignParameter(fields[i])).toArray(String[]::new))
+                    .ORDER_BY(t.primaryKeyColumn).toString());
+        }
+    }
+
+    /**
+     * 按主键键集分页查询
+     */
+    class SelectAfterIdSqlProvider extends StaticSqlProviderSupport {
+
+        /**
+         * 创建一个新的SelectAfterIdSqlProvider实例。
+         */
+        public SelectAfterIdSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"SELECT ... FROM table WHERE id &gt; ? ORDER BY id LIMIT ?"的SQL语句
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return 生成的SELECT SQL语句
+         */
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
+            return limit(new SQL().SELECT(table.selectColumns).FROM(table.tableName)
+                .WHERE(table.primaryKeyColumn + " > #{lastId}").ORDER_BY(table.primaryKeyColumn), dialect, "#{limit}")
+                .toString();
+        }
+    }
+
+    /**
+     * 按时间和主键组成的键集分页查询
+     */
+    abstract class SelectAfterTimeSqlProvider extends StaticSqlProviderSupport {
+
+        /**
+         * 从第一条记录开始查询时使用的时间，不早于各数据库日期时间类型的最小值
+         */
+        static final LocalDateTime MIN_TIME = LocalDateTime.of(1000, 1, 1, 0, 0);
+
+        /**
+         * 时间字段名
+         */
+        private final String timeField;
+
+        /**
+         * 创建一个新的SelectAfterTimeSqlProvider实例。
+         *
+         * @param timeField 时间字段名
+         */
+        protected SelectAfterTimeSqlProvider(String timeField) {
+            this.timeField = timeField;
+        }
+
+        /**
+         * 生成形如"SELECT ... FROM table WHERE (time, id) &gt; (?, ?) ORDER BY time, id LIMIT ?"的SQL语句，
+         * 不支持行值比较的数据库展开为"time &gt; ? OR (time = ? AND id &gt; ?)"
+         *
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return 生成的SELECT SQL语句
+         */
+        @Override
+        protected String sql(TableInfo table, Dialect dialect) {
+            String time = table.columnName(timeField);
+            String id = table.primaryKeyColumn;
+            String where = dialect.supportsRowValueComparison()
+                ? "(" + time + ", " + id + ") > (#{lastTime}, #{lastId})"
+                : time + " > #{lastTime} OR (" + time + " = #{lastTime} AND " + id + " > #{lastId})";
+            return limit(new SQL().SELECT(table.selectColumns).FROM(table.tableName).WHERE(where).ORDER_BY(time, id),
+                dialect, "#{limit}").toString();
+        }
+    }
+
+    /**
+     * 按创建时间和主键的键集分页查询
+     */
+    class SelectAfterCreatedTimeSqlProvider extends SelectAfterTimeSqlProvider {
+
+        /**
+         * 创建一个新的SelectAfterCreatedTimeSqlProvider实例。
+         */
+        public SelectAfterCreatedTimeSqlProvider() {
+            super("createdTime");
+        }
+    }
+
+    /**
+     * 按更新时间和主键的键集分页查询
+     */
+    class SelectAfterUpdatedTimeSqlProvider extends SelectAfterTimeSqlProvider {
+
+        /**
+         * 创建一个新的SelectAfterUpdatedTimeSqlProvider实例。
+         */
+        public SelectAfterUpdatedTimeSqlProvider() {
+            super("updatedTime");
+        }
+    }
+
+    /**
+     * 投影查询
+     */
+    class SelectProjectionSqlProvider extends ProjectionSqlProviderSupport {
+
+        /**
+         * 创建一个新的SelectProjectionSqlProvider实例。
+         */
+        public SelectProjectionSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"SELECT id, name FROM table ORDER BY id"的SQL语句，按mapper方法缓存
+         *
+         * @param context MyBatis提供的上下文对象，包含了Mapper接口的相关信息
+         * @return 生成的SELECT SQL语句
+         */
+        public String sql(ProviderContext context) {
+            return tableInfo(context).sql("selectProjection:" + methodKey(context),
+                table -> new SQL().SELECT(projectionColumns(table, context)).FROM(table.tableName)
+                    .ORDER_BY(table.primaryKeyColumn).toString());
+        }
+    }
+
+    /**
+     * 根据主键的投影查询
+     */
+    class SelectProjectionByIdSqlProvider extends ProjectionSqlProviderSupport {
+
+        /**
+         * 创建一个新的SelectProjectionByIdSqlProvider实例。
+         */
+        public SelectProjectionByIdSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"SELECT id, name FROM table WHERE id = ?"的SQL语句，按mapper方法缓存
+         *
+         * @param context MyBatis提供的上下文对象，包含了Mapper接口的相关信息
+         * @return 生成的SELECT SQL语句
+         */
+        public String sql(ProviderContext context) {
+            return tableInfo(context).sql("selectProjectionById:" + methodKey(context),
+                table -> new SQL().SELECT(projectionColumns(table, context)).FROM(table.tableName)
+                    .WHERE(table.getPrimaryKeyWhere()).toString());
+        }
+    }
+
+    /**
+     * 根据主键列表的投影查询
+     */
+    class SelectProjectionByIdsSqlProvider extends ProjectionSqlProviderSupport {
+
+        /**
+         * 创建一个新的SelectProjectionByIdsSqlProvider实例。
+         */
+        public SelectProjectionByIdsSqlProvider() {
+            // this constructor is empty
+        }
+
+        /**
+         * 生成形如"SELECT id, name FROM table WHERE id IN (?, ?)"的SQL语句，按mapper方法和ID列表长度缓存。
+         * <p>
+         * ID列表对应的参数名为"ids"，长度不能超过 {@link SelectByPrimaryKeyInSqlProvider#MAX_IN_SIZE}，
+         * 可以使用 {@link SelectByPrimaryKeyInSqlProvider#bucket(List)} 补齐长度以减少语句形态。
+         *
+         * @param params 包含查询参数的Map，其中"ids"键对应要查询的ID列表
+         * @param context MyBatis提供的上下文对象，包含了Mapper接口的相关信息
+         * @return 生成的SELECT SQL语句
+         */
+        public String sql(Map<String, Object> params, ProviderContext context) {
+            int size = ((List<?>)params.get("ids")).size();
+            return tableInfo(context).sql("selectProjectionByIds:" + methodKey(context) + ":" + size,
+                table -> new SQL().SELECT(projectionColumns(table, context)).FROM(table.tableName)
+                    .WHERE(SelectByPrimaryKeyInSqlProvider.primaryKeyIn(table, size)).toString());
+        }
+    }
+
+    /**
+     * 投影查询基类，查询的列由mapper方法的 {@link Projection} 注解或返回的投影类型确定
+     */
+    abstract class ProjectionSqlProviderSupport extends BaseSqlProviderSupport {
+
+        /**
+         * 构造一个新的ProjectionSqlProviderSupport实例。
+         */
+        protected ProjectionSqlProviderSupport() {
+            // this constructor is empty
+        }
+
+        /**
+         * 获取mapper方法的缓存标识，表信息由同一实体的所有mapper共享，投影SQL需要按mapper和方法区分。
+         * <p>
+         * 同名的重载方法或继承的泛型方法可能返回不同的投影类型，标识包含方法的完整签名（含泛型返回类型和参数类型），
+         * 泛型在不同mapper上解析出的投影类型由mapper类型区分。
+         *
+         * @param context MyBatis提供的上下文对象，包含了Mapper接口的相关信息
+         * @return mapper类型和方法签名，如 com.example.UserMapper:public abstract java.util.List&lt;com.example.UserName&gt;
+         *         com.example.UserMapper.queryNames(java.util.List&lt;java.lang.Long&gt;)
+         */
+        static String methodKey(ProviderContext context) {
+            return context.getMapperType().getName() + ":" + context.getMapperMethod().toGenericString();
+        }
+
+        /**
+         * 获取投影查询的列。
+         * <p>
+         * mapper方法上有 {@link Projection} 注解且指定了字段名时使用指定的字段，否则使用返回的投影类型
+         * （返回集合或游标时为元素类型）上 {@link Projection} 注解指定的字段，未指定时使用投影类型中所有映射列的字段。
+         *
+         * @param table 表信息
+         * @param context MyBatis提供的上下文对象，包含了Mapper接口的相关信息
+         * @return 查询的列，如 user_name AS userName
+         */
+        static String[] projectionColumns(TableInfo table, ProviderContext context) {
+            Method method = context.getMapperMethod();
+            Class<?> projectionType = projectionType(method, context.getMapperType());
+            Projection projection = method.getAnnotation(Projection.class);
+            if (projection == null || projection.value().length == 0) {
+                projection = projectionType.getAnnotation(Projection.class);
+            }
+            String[] names = projection != null && projection.value().length > 0 ? projection.value()
+                : Stream.of(TableInfo.excludeNotColumnField(projectionType)).map(Field::getName).toArray(String[]::new);
+            return Stream.of(names).map(name -> Stream.of(table.fields).filter(f -> f.getName().equals(name))
+                .findFirst().map(TableInfo::selectColumnName).orElseThrow(() -> new IllegalStateException(
+                    "投影" + projectionType.getName() + "的字段" + name + "在表" + table.tableName + "中不存在.")))
+                .toArray(String[]::new);
+        }
+
+        /**
+         * 获取mapper方法返回的投影类型，返回集合或游标时为元素类型
          *
-         * @param context MyBatis提供的上下文对象，包含了Mapper接口的相关信息
-         * @return 生成的INSERT SQL语句
+         * @param method mapper方法
+         * @param mapperType mapper类型
+         * @return 投影类型
          */
-        public String sql(ProviderContext context) {
-            TableInfo table = tableInfo(context);
-
-            return new SQL().INSERT_INTO(table.tableName).INTO_COLUMNS(table.columnsWithoutPrimaryKey)
-                .INTO_VALUES(
-                    Stream.of(table.fieldsWithoutPrimaryKey).map(TableInfo::bindParameter).toArray(String[]::new))
-                .toString();
-
+        private static Class<?> projectionType(Method method, Class<?> mapperType) {
+            Type type = TypeParameterResolver.resolveReturnType(method, mapperType);
+            if (type instanceof ParameterizedType) {
+                ParameterizedType parameterized = (ParameterizedType)type;
+                Class<?> raw = (Class<?>)parameterized.getRawType();
+                type = Iterable.class.isAssignableFrom(raw) || raw == Optional.class
+                    ? parameterized.getActualTypeArguments()[0] : raw;
+                if (type instanceof ParameterizedType) {
+                    type = ((ParameterizedType)type).getRawType();
+                }
+            }
+            if (type instanceof Class && ((Class<?>)type).isArray()) {
+                type = ((Class<?>)type).getComponentType();
+            }
+            if (!(type instanceof Class)) {
+                throw new IllegalStateException("无法确定" + method + "的投影类型.");
+            }
+            return (Class<?>)type;
         }
     }
 
     /**
-     * 单条数据查询
+     * 基类
      */
-    class SelectOneSqlProvider extends BaseSqlProviderSupport {
+    abstract class BaseSqlProviderSupport {
 
         /**
-         * 创建一个新的SelectOneSqlProvider实例。
+         * 构造一个新的BaseSqlProviderSupport实例。
          * <p>
-         * 此构造函数用于初始化单条数据查询的SQL提供者。 主要用于生成查询单条记录的SQL语句。
+         * 此构造函数用于初始化一个SQL提供者。 主要用于处理通用的SQL生成逻辑。
          */
-        public SelectOneSqlProvider() {
+        protected BaseSqlProviderSupport() {
             // this constructor is empty
         }
 
         /**
-         * sql
+         * 获取表信息结构
          *
-         * @param context context
-         * @return sql
+         * @param context provider context
+         * @return 表基本信息
          */
-        public String sql(ProviderContext context) {
-            TableInfo table = tableInfo(context);
+        protected TableInfo tableInfo(ProviderContext context) {
+            return tableInfo(context.getMapperType());
+        }
 
-            return new SQL().SELECT(table.selectColumns).FROM(table.tableName).WHERE(table.getPrimaryKeyWhere())
-                .toString();
+        /**
+         * 获取表信息结构
+         *
+         * @param mapperType mapper类型
+         * @return 表基本信息
+         */
+        static TableInfo tableInfo(Class<?> mapperType) {
+            return TableInfo.forMapper(mapperType);
         }
-    }
 
-    /**
-     * 根据id列表查询
-     */
-    class SelectByPrimaryKeyInSqlProvider extends BaseSqlProviderSupport {
+        /**
+         * 获取mapper实例（一般为MyBatis生成的代理对象）对应的表信息结构，供BaseMapper的default方法使用
+         *
+         * @param mapper mapper实例
+         * @return 表基本信息
+         */
+        static TableInfo tableInfo(BaseMapper<?> mapper) {
+            Class<?> mapperType = Stream.of(mapper.getClass().getInterfaces())
+                .filter(BaseMapper.class::isAssignableFrom).findFirst().orElseThrow(() -> new IllegalStateException(
+                    "未找到" + mapper.getClass().getName() + "实现的BaseMapper接口."));
+            return tableInfo(mapperType);
+        }
 
         /**
-         * 创建一个新的SelectByPrimaryKeyInSqlProvider实例。
-         * <p>
-         * 此构造函数用于初始化批量主键查询的SQL提供者。 主要用于生成根据ID列表进行批量查询的SQL语句。
+         * 获取调用参数中"dialect"键指定的方言，未指定时由MyBatis的databaseId确定
+         *
+         * @param params 调用参数
+         * @param context MyBatis提供的上下文对象
+         * @return 数据库方言
          */
-        public SelectByPrimaryKeyInSqlProvider() {
-            // this constructor is empty
+        static Dialect dialect(Map<String, Object> params, ProviderContext context) {
+            Object dialect = params.containsKey("dialect") ? params.get("dialect") : null;
+            return dialect instanceof Dialect ? (Dialect)dialect : Dialect.of(context.getDatabaseId());
         }
 
         /**
-         * 生成根据主键ID列表进行批量查询的SQL语句
-         * <p>
-         * 该方法用于构建一个SELECT语句，可以同时查询多个指定ID的记录。 它将生成类似"SELECT ... FROM table WHERE id IN (1,2,3)"的SQL语句。
+         * 限制返回行数，支持 {@code LIMIT} 的数据库使用 {@code LIMIT n}，其他数据库使用 {@code FETCH FIRST n ROWS ONLY}
          *
-         * @param params 包含查询参数的Map，其中"ids"键对应要查询的ID列表
-         * @param context MyBatis提供的上下文对象，包含Mapper接口的相关信息
-         * @return 生成的SELECT SQL语句
+         * @param sql SQL
+         * @param dialect 数据库方言
+         * @param rows 行数，可以是绑定参数
+         * @return SQL
          */
-        public String sql(Map<String, Object> params, ProviderContext context) {
-            @SuppressWarnings("unchecked")
-            List<Object> ids = (List<Object>)params.get("ids");
-            TableInfo table = tableInfo(context);
-            return new SQL().SELECT(table.selectColumns).FROM(table.tableName).WHERE(table.primaryKeyColumn + " IN ("
-                + String.join(",", ids.stream().map(String::valueOf).toArray(String[]::new)) + ")").toString();
+        static SQL limit(SQL sql, Dialect dialect, String rows) {
+            return dialect.supportsLimit() ? sql.LIMIT(rows) : sql.FETCH_FIRST_ROWS_ONLY(rows);
         }
     }
 
     /**
-     * 基类
+     * 静态SQL提供者基类
+     * <p>
+     * 生成的SQL只与表信息和数据库方言有关，与调用参数无关。 此类SQL可以通过 {@link MapperSqlCompiler} 在注册mapper时预先生成并解析为静态的
+     * {@link org.apache.ibatis.mapping.SqlSource}，避免每次调用时重复拼接和解析SQL。
      */
-    abstract class BaseSqlProviderSupport {
+    abstract class StaticSqlProviderSupport extends BaseSqlProviderSupport {
 
         /**
-         * key -> mapper class value -> tableInfo
+         * 构造一个新的StaticSqlProviderSupport实例。
          */
-        private static final Map<Class<?>, TableInfo> TABLE_CACHE = new ConcurrentHashMap<>(8);
+        protected StaticSqlProviderSupport() {
+            // this constructor is empty
+        }
 
         /**
-         * 构造一个新的BaseSqlProviderSupport实例。
-         * <p>
-         * 此构造函数用于初始化一个SQL提供者。 主要用于处理通用的SQL生成逻辑。
+         * 生成SQL，供MyBatis的ProviderSqlSource调用
+         *
+         * @param context MyBatis提供的上下文对象，包含了Mapper接口的相关信息
+         * @return 生成的SQL语句
          */
-        protected BaseSqlProviderSupport() {
-            // this constructor is empty
+        public String sql(ProviderContext context) {
+            return sql(tableInfo(context), Dialect.of(context.getDatabaseId()));
         }
 
         /**
-         * 获取表信息结构
+         * 根据表信息生成SQL
          *
-         * @param context provider context
-         * @return 表基本信息
+         * @param table 表信息
+         * @param dialect 数据库方言
+         * @return 生成的SQL语句
          */
-        protected TableInfo tableInfo(ProviderContext context) {
-            // 如果不存在则创建
-            return TABLE_CACHE.computeIfAbsent(context.getMapperType(), TableInfo::of);
+        protected abstract String sql(TableInfo table, Dialect dialect);
+
+        /**
+         * 生成的SQL是否可以在该数据库上执行，用于预热时跳过不适用的语句（参见 {@link MapperWarmUp}）
+         *
+         * @param dialect 数据库方言
+         * @return 默认返回true
+         */
+        protected boolean supports(Dialect dialect) {
+            return true;
         }
     }
 
     /**
      * table info
+     * <p>
+     * 表信息按实体类型注册，同一实体的多个mapper共享同一个实例（包括按语句形态缓存的SQL），通过 {@link #forEntity(Class)} 或
+     * {@link #forMapper(Class)} 获取。注册表基于 {@link ClassValue}，不持有实体类和mapper类的强引用，热部署卸载类时随之回收。
      */
     class TableInfo {
 
+        /**
+         * 每个表最多缓存的SQL数量
+         */
+        public static final int MAX_SQL_CACHE_SIZE = 1024;
+
         /**
          * 主键名
          */
         private static final String DEFAULT_PRIMARY_KEY = "id";
 
+        /**
+         * key -> 实体类型 value -> tableInfo
+         */
+        private static final ClassValue<TableInfo> ENTITY_TABLES = new ClassValue<TableInfo>() {
+            @Override
+            protected TableInfo computeValue(Class<?> type) {
+                return create(type);
+            }
+        };
+
+        /**
+         * key -> mapper类型 value -> 实体类型
+         */
+        private static final ClassValue<Class<?>> MAPPER_ENTITIES = new ClassValue<Class<?>>() {
+            @Override
+            protected Class<?> computeValue(Class<?> type) {
+                return entityType(type);
+            }
+        };
+
+        /**
+         * 实体类型
+         */
+        private Class<?> entityClass;
+
         /**
          * 表名
          */
@@ -252,6 +2138,11 @@ public interface BaseMapper<S extends BaseEntity> {
          */
         private Field[] fieldsWithoutPrimaryKey;
 
+        /**
+         * 不包含主键的字段访问器，与 {@link #fieldsWithoutPrimaryKey} 一一对应
+         */
+        private FieldAccessor[] accessorsWithoutPrimaryKey;
+
         /**
          * 所有列名
          */
@@ -267,22 +2158,69 @@ public interface BaseMapper<S extends BaseEntity> {
          */
         private String[] selectColumns;
 
+        /**
+         * 按语句形态缓存的SQL，key为语句形态标识
+         */
+        private final Map<String, String> sqlCache = new ConcurrentHashMap<>(8);
+
+        /**
+         * SELECT语句的列不带别名的表信息，参见 {@link #unaliased()}
+         */
+        private volatile TableInfo unaliased;
+
         private TableInfo() {}
 
         /**
-         * 获取TableInfo的简单工厂
+         * 获取实体已注册的表信息，不存在时创建并注册
+         *
+         * @param entityClass 实体类型
+         * @return {@link TableInfo}
+         */
+        public static TableInfo forEntity(Class<?> entityClass) {
+            return ENTITY_TABLES.get(entityClass);
+        }
+
+        /**
+         * 获取mapper对应实体已注册的表信息，不存在时创建并注册
+         *
+         * @param mapperType mapper类型
+         * @return {@link TableInfo}
+         */
+        public static TableInfo forMapper(Class<?> mapperType) {
+            return forEntity(MAPPER_ENTITIES.get(mapperType));
+        }
+
+        /**
+         * 获取TableInfo的简单工厂，每次调用都创建新的实例，一般应使用 {@link #forMapper(Class)}。
          *
          * @param mapperType mapper类型
          * @return {@link TableInfo}
          */
         public static TableInfo of(Class<?> mapperType) {
-            Class<?> entityClass = entityType(mapperType);
+            return create(entityType(mapperType));
+        }
+
+        /**
+         * 创建实体的表信息。
+         * <p>
+         * 实体有编译期生成的 {@link TableMetadata} 时使用其中的元数据，否则通过反射扫描实体的字段和注解。
+         *
+         * @param entityClass 实体类型
+         * @return {@link TableInfo}
+         */
+        private static TableInfo create(Class<?> entityClass) {
+            TableMetadata metadata = metadata(entityClass);
+            if (metadata != null) {
+                return of(entityClass, metadata);
+            }
             // 获取不含有@NotColumn注解的fields
             Field[] fields = excludeNotColumnField(entityClass);
             TableInfo tableInfo = new TableInfo();
+            tableInfo.entityClass = entityClass;
             tableInfo.fields = fields;
             tableInfo.fieldsWithoutPrimaryKey = Arrays.stream(tableInfo.fields)
                 .filter(f -> !f.isAnnotationPresent(PrimaryKey.class)).toArray(Field[]::new);
+            tableInfo.accessorsWithoutPrimaryKey = FieldAccessor.of(tableInfo.fieldsWithoutPrimaryKey);
             tableInfo.tableName = tableName(entityClass);
             tableInfo.primaryKeyColumn = primaryKeyColumn(fields);
             tableInfo.columns = columns(fields);
@@ -292,6 +2230,63 @@ public interface BaseMapper<S extends BaseEntity> {
             return tableInfo;
         }
 
+        /**
+         * 根据编译期生成的元数据创建TableInfo，结果与反射扫描创建的TableInfo相同。
+         * <p>
+         * 表名、列名和主键字段取自元数据，不再扫描注解和转换列名；Field对象和字段访问器仍按字段名通过反射获取。
+         *
+         * @param entityClass 实体类型
+         * @param metadata 表元数据
+         * @return {@link TableInfo}
+         */
+        static TableInfo of(Class<?> entityClass, TableMetadata metadata) {
+            String[] names = metadata.fieldNames();
+            Field[] fields = new Field[names.length];
+            for (int i = 0; i < names.length; i++) {
+                fields[i] = ReflectUtil.getField(entityClass, names[i]);
+                if (fields[i] == null) {
+                    throw new IllegalStateException(metadata.getClass().getName() + "中的字段" + names[i] + "在"
+                        + entityClass.getName() + "中不存在，请重新编译生成表元数据.");
+                }
+            }
+            TableInfo tableInfo = new TableInfo();
+            tableInfo.entityClass = entityClass;
+            tableInfo.fields = fields;
+            // 与反射扫描相同，排除所有标注了@PrimaryKey的字段
+            List<String> primaryKeyFields = Arrays.asList(metadata.primaryKeyFields());
+            tableInfo.fieldsWithoutPrimaryKey =
+                Stream.of(fields).filter(f -> !primaryKeyFields.contains(f.getName())).toArray(Field[]::new);
+            tableInfo.accessorsWithoutPrimaryKey = FieldAccessor.of(tableInfo.fieldsWithoutPrimaryKey);
+            tableInfo.tableName = metadata.tableName();
+            tableInfo.primaryKeyColumn = metadata.primaryKeyColumn();
+            tableInfo.columns = metadata.columns();
+            tableInfo.columnsWithoutPrimaryKey = Arrays.stream(tableInfo.columns)
+                .filter(s -> !s.equals(tableInfo.primaryKeyColumn)).toArray(String[]::new);
+            tableInfo.selectColumns = metadata.selectColumns();
+            return tableInfo;
+        }
+
+        /**
+         * 加载实体对应的编译期生成的表元数据
+         *
+         * @param entityClass 实体类型
+         * @return 表元数据，没有生成时返回null
+         */
+        static TableMetadata metadata(Class<?> entityClass) {
+            String className = entityClass.getName().replace('$', '_') + TableMetadata.CLASS_NAME_SUFFIX;
+            Class<?> metadataType;
+            try {
+                metadataType = Class.forName(className, true, entityClass.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                return null;
+            }
+            try {
+                return (TableMetadata)metadataType.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                throw new IllegalStateException("创建" + className + "实例错误!", e);
+            }
+        }
+
         /**
          * 获取BaseMapper接口中的泛型类型
          *
@@ -407,8 +2402,39 @@ public interface BaseMapper<S extends BaseEntity> {
          * @return 参数格式
          */
         public static String bindParameter(Field field) {
-            String value = "#{" + field.getName() + "}";
-            return field.isAnnotationPresent(JSONColumn.class) ? value + "::JSONB" : value;
+            return bindParameter(field, "");
+        }
+
+        /**
+         * 绑定参数，参数名带有前缀，如 #{list[0].userName}。
+         * <p>
+         * 标注 {@link JSONColumn} 的字段转换为JSONB，其中 {@link JSONValue} 字段以字节绑定（参见 {@link JSONTypeHandler}），
+         * 由数据库解码为文本后再转换。
+         *
+         * @param field 字段
+         * @param prefix 参数名前缀
+         * @return 参数格式
+         */
+        public static String bindParameter(Field field, String prefix) {
+            return bindParameter(field, prefix, field.getName());
+        }
+
+        /**
+         * 绑定参数，参数名与字段名不同时使用，如 {@link Criteria} 的条件值 #{values[0]}，按字段的注解转换方式与
+         * {@link #bindParameter(Field, String)} 相同
+         *
+         * @param field 字段
+         * @param prefix 参数名前缀
+         * @param name 参数名
+         * @return 参数格式
+         */
+        public static String bindParameter(Field field, String prefix, String name) {
+            String value = "#{" + prefix + name + "}";
+            if (!field.isAnnotationPresent(JSONColumn.class)) {
+                return value;
+            }
+            return field.getType() == JSONValue.class ? "convert_from(" + value + ", 'UTF8')::JSONB"
+                : value + "::JSONB";
         }
 
         /**
@@ -421,6 +2447,185 @@ public interface BaseMapper<S extends BaseEntity> {
             return columnName(field) + " = " + bindParameter(field);
         }
 
+        /**
+         * 获取实体类型
+         *
+         * @return 实体类型
+         */
+        public Class<?> getEntityClass() {
+            return entityClass;
+        }
+
+        /**
+         * 获取表名
+         *
+         * @return 表名
+         */
+        public String getTableName() {
+            return tableName;
+        }
+
+        /**
+         * 获取主键列名
+         *
+         * @return 主键列名
+         */
+        public String getPrimaryKeyColumn() {
+            return primaryKeyColumn;
+        }
+
+        /**
+         * 获取映射到数据库列的字段，与 {@link #getColumns()} 一一对应
+         *
+         * @return 字段数组的副本
+         */
+        public Field[] getFields() {
+            return fields.clone();
+        }
+
+        /**
+         * 获取不包含主键的字段，与 {@link #getColumnsWithoutPrimaryKey()} 一一对应
+         *
+         * @return 字段数组的副本
+         */
+        public Field[] getFieldsWithoutPrimaryKey() {
+            return fieldsWithoutPrimaryKey.clone();
+        }
+
+        /**
+         * 获取所有列名
+         *
+         * @return 列名数组的副本
+         */
+        public String[] getColumns() {
+            return columns.clone();
+        }
+
+        /**
+         * 获取不包含主键的列名
+         *
+         * @return 列名数组的副本
+         */
+        public String[] getColumnsWithoutPrimaryKey() {
+            return columnsWithoutPrimaryKey.clone();
+        }
+
+        /**
+         * 获取属性对应的字段
+         *
+         * @param property 属性名
+         * @return 字段
+         * @throws IllegalArgumentException 属性不存在或未映射到数据库列
+         */
+        public Field field(String property) {
+            for (Field field : fields) {
+                if (field.getName().equals(property)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("表" + tableName + "没有" + property + "字段对应的列.");
+        }
+
+        /**
+         * 获取属性对应的列名
+         *
+         * @param property 属性名
+         * @return 列名
+         * @throws IllegalArgumentException 属性不存在或未映射到数据库列
+         */
+        public String columnName(String property) {
+            return columnName(field(property));
+        }
+
+        /**
+         * 获取方法引用对应的字段
+         *
+         * @param property 属性的getter方法引用，如 User::getName
+         * @return 字段
+         * @throws IllegalArgumentException 不是getter方法引用，或属性不存在或未映射到数据库列
+         */
+        public Field field(Property<?, ?> property) {
+            return field(LambdaUtil.propertyName(property));
+        }
+
+        /**
+         * 获取方法引用对应的列名
+         *
+         * @param property 属性的getter方法引用，如 User::getName
+         * @return 列名
+         * @throws IllegalArgumentException 不是getter方法引用，或属性不存在或未映射到数据库列
+         */
+        public String columnName(Property<?, ?> property) {
+            return columnName(field(property));
+        }
+
+        /**
+         * 获取SELECT语句的列不带别名（如 {@code user_name}）的表信息，其他信息与当前表信息相同。
+         * <p>
+         * 供 {@link MapperSqlCompiler} 为使用显式ResultMap的语句生成SQL，列名由ResultMap映射到属性，不依赖别名和自动映射。
+         *
+         * @return 表信息
+         */
+        TableInfo unaliased() {
+            TableInfo view = unaliased;
+            if (view == null) {
+                view = new TableInfo();
+                view.entityClass = entityClass;
+                view.tableName = tableName;
+                view.primaryKeyColumn = primaryKeyColumn;
+                view.fields = fields;
+                view.fieldsWithoutPrimaryKey = fieldsWithoutPrimaryKey;
+                view.accessorsWithoutPrimaryKey = accessorsWithoutPrimaryKey;
+                view.columns = columns;
+                view.columnsWithoutPrimaryKey = columnsWithoutPrimaryKey;
+                view.selectColumns = columns;
+                view.unaliased = view;
+                unaliased = view;
+            }
+            return view;
+        }
+
+        /**
+         * 获取INSERT语句返回的字段，主键在前，其余字段的顺序与 {@link #getFieldsWithoutPrimaryKey()} 相同
+         *
+         * @return 字段数组
+         */
+        Field[] returningFields() {
+            List<Field> others = Arrays.asList(fieldsWithoutPrimaryKey);
+            return Stream.concat(Stream.of(fields).filter(field -> !others.contains(field)), others.stream())
+                .toArray(Field[]::new);
+        }
+
+        /**
+         * 获取INSERT语句返回的列，顺序与 {@link #returningFields()} 相同
+         *
+         * @return 列名数组
+         */
+        String[] returningColumns() {
+            return Stream.of(returningFields()).map(TableInfo::columnName).toArray(String[]::new);
+        }
+
+        /**
+         * 获取按语句形态缓存的SQL，不存在时使用renderer生成并缓存。
+         * <p>
+         * 缓存的SQL数量达到 {@link #MAX_SQL_CACHE_SIZE} 后不再缓存新形态的SQL（与 {@link ShapeCachingLanguageDriver} 相同），
+         * 避免形态过多的查询（如条件组合很多的 {@link Criteria}）使缓存无限增长。
+         *
+         * @param key 语句形态标识，相同标识的SQL必须相同
+         * @param renderer SQL生成函数
+         * @return SQL
+         */
+        public String sql(String key, Function<TableInfo, String> renderer) {
+            String sql = sqlCache.get(key);
+            if (sql == null) {
+                sql = renderer.apply(this);
+                if (sqlCache.size() < MAX_SQL_CACHE_SIZE) {
+                    sqlCache.putIfAbsent(key, sql);
+                }
+            }
+            return sql;
+        }
+
         /**
          * 获取主键的where条件，如 id = #{id}
          *
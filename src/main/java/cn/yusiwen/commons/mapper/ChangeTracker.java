@@ -0,0 +1,121 @@
+package cn.yusiwen.commons.mapper;
+
+import java.lang.reflect.Field;
+import java.util.BitSet;
+import java.util.Objects;
+
+import cn.yusiwen.commons.mapper.BaseMapper.TableInfo;
+import cn.yusiwen.commons.mapper.annotation.PrimaryKey;
+
+/**
+ * 实体变更跟踪工具。
+ * <p>
+ * 实体加载后通过 {@link #snapshot(BaseEntity)} 记录各列的值，更新时与快照比较，只更新值发生变化的列 （参见
+ * {@link BaseMapper#update(BaseEntity)}）。配置 {@link ChangeTrackingInterceptor} 后，查询返回的实体会自动记录快照。
+ *
+ * <p>
+ * 快照只保存字段值的引用，对可变对象（如 {@link java.util.Date}、集合）的原地修改无法被检测到，此类字段应整体替换。
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+public final class ChangeTracker {
+
+    /**
+     * key -> 实体类型 value -> 映射到数据库列的字段
+     */
+    private static final ClassValue<Field[]> COLUMN_FIELDS = new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            return TableInfo.excludeNotColumnField(type);
+        }
+    };
+
+    /**
+     * key -> 实体类型 value -> 映射到数据库列的字段访问器，与 {@link #COLUMN_FIELDS} 一一对应
+     */
+    private static final ClassValue<FieldAccessor[]> COLUMN_ACCESSORS = new ClassValue<FieldAccessor[]>() {
+        @Override
+        protected FieldAccessor[] computeValue(Class<?> type) {
+            return FieldAccessor.of(COLUMN_FIELDS.get(type));
+        }
+    };
+
+    private ChangeTracker() {}
+
+    /**
+     * 记录实体当前各列的值作为快照
+     *
+     * @param entity 实体对象
+     */
+    public static void snapshot(BaseEntity entity) {
+        FieldAccessor[] accessors = COLUMN_ACCESSORS.get(entity.getClass());
+        Object[] values = new Object[accessors.length];
+        for (int i = 0; i < accessors.length; i++) {
+            values[i] = accessors[i].get(entity);
+        }
+        entity.snapshot = values;
+    }
+
+    /**
+     * 清除实体的快照，之后的更新将写入所有列
+     *
+     * @param entity 实体对象
+     */
+    public static void clear(BaseEntity entity) {
+        entity.snapshot = null;
+    }
+
+    /**
+     * 判断实体是否有快照
+     *
+     * @param entity 实体对象
+     * @return 有快照返回true
+     */
+    public static boolean isTracked(BaseEntity entity) {
+        return entity.snapshot != null;
+    }
+
+    /**
+     * 判断实体的列值相对快照是否发生变化，没有快照时视为已变化
+     *
+     * @param entity 实体对象
+     * @return 发生变化返回true
+     */
+    public static boolean isChanged(BaseEntity entity) {
+        return !isTracked(entity) || !changedMask(entity).isEmpty();
+    }
+
+    /**
+     * 获取实体中需要更新的字段（主键除外）。有快照时为值相对快照发生变化的字段，没有快照时为所有字段
+     *
+     * @param entity 实体对象
+     * @return 需要更新的字段
+     */
+    public static Field[] changedFields(BaseEntity entity) {
+        Field[] fields = COLUMN_FIELDS.get(entity.getClass());
+        return changedMask(entity).stream().mapToObj(i -> fields[i]).toArray(Field[]::new);
+    }
+
+    /**
+     * 获取需要更新的字段在 {@link TableInfo#excludeNotColumnField(Class)} 结果中的位图
+     *
+     * @param entity 实体对象
+     * @return 需要更新的字段位图
+     */
+    static BitSet changedMask(BaseEntity entity) {
+        Field[] fields = COLUMN_FIELDS.get(entity.getClass());
+        FieldAccessor[] accessors = COLUMN_ACCESSORS.get(entity.getClass());
+        Object[] snapshot = entity.snapshot;
+        BitSet mask = new BitSet(fields.length);
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].isAnnotationPresent(PrimaryKey.class)) {
+                continue;
+            }
+            if (snapshot == null || !Objects.deepEquals(snapshot[i], accessors[i].get(entity))) {
+                mask.set(i);
+            }
+        }
+        return mask;
+    }
+}
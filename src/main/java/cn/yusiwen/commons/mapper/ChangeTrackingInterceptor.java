@@ -0,0 +1,116 @@
+package cn.yusiwen.commons.mapper;
+
+import java.io.IOException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+
+/**
+ * 变更跟踪插件，为查询返回的 {@link BaseEntity} 记录列值快照（参见 {@link ChangeTracker}）。
+ * <p>
+ * 返回 {@link Cursor} 的查询（如 {@link BaseMapper#scanAll()}、{@link ParallelScanner}）在读取每一行时记录快照。
+ *
+ * <p>
+ * 使用示例：
+ *
+ * <pre>
+ * configuration.addInterceptor(new ChangeTrackingInterceptor());
+ * </pre>
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+@Intercepts({@Signature(type = ResultSetHandler.class, method = "handleResultSets", args = Statement.class),
+    @Signature(type = ResultSetHandler.class, method = "handleCursorResultSets", args = Statement.class)})
+public class ChangeTrackingInterceptor implements Interceptor {
+
+    /**
+     * 构造一个新的ChangeTrackingInterceptor实例。
+     */
+    public ChangeTrackingInterceptor() {
+        // this constructor is empty
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        if (result instanceof List) {
+            for (Object entity : (List<?>)result) {
+                snapshot(entity);
+            }
+        } else if (result instanceof Cursor) {
+            return new TrackingCursor((Cursor<Object>)result);
+        }
+        return result;
+    }
+
+    /**
+     * 实体是 {@link BaseEntity} 时记录快照
+     *
+     * @param entity 查询返回的对象
+     */
+    private static void snapshot(Object entity) {
+        if (entity instanceof BaseEntity) {
+            ChangeTracker.snapshot((BaseEntity)entity);
+        }
+    }
+
+    /**
+     * 读取每一行时记录快照的游标
+     */
+    private static final class TrackingCursor implements Cursor<Object> {
+
+        private final Cursor<Object> cursor;
+
+        TrackingCursor(Cursor<Object> cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return cursor.isOpen();
+        }
+
+        @Override
+        public boolean isConsumed() {
+            return cursor.isConsumed();
+        }
+
+        @Override
+        public int getCurrentIndex() {
+            return cursor.getCurrentIndex();
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            Iterator<Object> iterator = cursor.iterator();
+            return new Iterator<Object>() {
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    Object entity = iterator.next();
+                    snapshot(entity);
+                    return entity;
+                }
+            };
+        }
+
+        @Override
+        public void close() throws IOException {
+            cursor.close();
+        }
+    }
+}
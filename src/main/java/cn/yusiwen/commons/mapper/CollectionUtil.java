@@ -92,6 +92,29 @@ public class CollectionUtil {
         return !isEmpty(collection) && collection.contains(value);
     }
 
+    /**
+     * 将列表按指定大小切分为多个子列表，子列表为原列表的视图
+     *
+     * @param list 列表
+     * @param size 每个子列表的最大元素个数，必须大于0
+     * @param <T> 元素类型
+     * @return 子列表集合，列表为空时返回空集合
+     */
+    public static <T> List<List<T>> partition(List<T> list, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be greater than 0");
+        }
+        if (isEmpty(list)) {
+            return emptyList();
+        }
+        int total = list.size();
+        List<List<T>> parts = new ArrayList<>((total + size - 1) / size);
+        for (int from = 0; from < total; from += size) {
+            parts.add(list.subList(from, Math.min(from + size, total)));
+        }
+        return parts;
+    }
+
     /**
      * 使用分隔符将集合元素拼接为字符串
      *
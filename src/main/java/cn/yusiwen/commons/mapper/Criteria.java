@@ -0,0 +1,646 @@
+package cn.yusiwen.commons.mapper;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.jdbc.SQL;
+
+import cn.yusiwen.commons.mapper.BaseMapper.TableInfo;
+
+/**
+ * 查询条件构造器，用于 {@link BaseMapper#queryByCriteria(Criteria)} 等方法。
+ * <p>
+ * 属性可以使用属性名或getter方法引用（如 {@code User::getName}，参见 {@link Property}）表示，
+ * 通过 {@link TableInfo#columnName(String)} 解析为列名，条件值均以绑定参数传递。
+ * 生成的SQL以条件的形态（查询的列、属性、运算符、IN列表长度、排序和是否限制行数）为标识缓存，与条件值无关，
+ * 相同形态的查询只在第一次执行时生成SQL，并配合 {@link ShapeCachingLanguageDriver} 复用解析后的语句。
+ * IN列表的长度补齐到2的幂（参见 {@link BaseMapper.SelectByPrimaryKeyInSqlProvider#bucket(List)}），限制语句形态的数量；
+ * 超过 {@link BaseMapper.SelectByPrimaryKeyInSqlProvider#MAX_IN_SIZE} 的列表拆分为以OR连接的多个IN条件。
+ *
+ * <p>
+ * 使用示例：
+ *
+ * <pre>
+ * import static cn.yusiwen.commons.mapper.Criteria.*;
+ *
+ * List&lt;User&gt; users = mapper.queryByCriteria(
+ *     where(eq(User::getName, name)).and(gt(User::getCreatedTime, time)).orderByDesc(User::getCreatedTime).limit(20));
+ * </pre>
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+public final class Criteria {
+
+    /**
+     * 条件
+     */
+    private final List<Condition> conditions = new ArrayList<>(4);
+
+    /**
+     * 条件值，按条件的顺序排列
+     */
+    private final List<Object> values = new ArrayList<>(4);
+
+    /**
+     * 排序，元素为属性名和是否降序
+     */
+    private final List<Object[]> orders = new ArrayList<>(1);
+
+    /**
+     * 查询的属性，为空时查询所有列
+     */
+    private final List<String> selects = new ArrayList<>(0);
+
+    /**
+     * 语句形态标识
+     */
+    private final StringBuilder shape = new StringBuilder(32);
+
+    /**
+     * 最多返回的记录数
+     */
+    private Integer limit;
+
+    private Criteria() {}
+
+    /**
+     * 创建不带条件的查询
+     *
+     * @return 查询条件
+     */
+    public static Criteria all() {
+        return new Criteria();
+    }
+
+    /**
+     * 创建查询条件
+     *
+     * @param condition 第一个条件
+     * @return 查询条件
+     */
+    public static Criteria where(Condition condition) {
+        return new Criteria().and(condition);
+    }
+
+    /**
+     * 创建只查询指定属性的查询，未查询的属性在返回的实体中为null
+     *
+     * @param properties 属性名
+     * @return 查询条件
+     */
+    public static Criteria select(String... properties) {
+        Criteria criteria = new Criteria();
+        for (String property : properties) {
+            criteria.selects.add(property);
+            criteria.shape.append(property).append(',');
+        }
+        return criteria;
+    }
+
+    /**
+     * 创建只查询指定属性的查询，未查询的属性在返回的实体中为null
+     *
+     * @param properties 属性的getter方法引用
+     * @param <T> 实体类型
+     * @return 查询条件
+     */
+    @SafeVarargs
+    public static <T> Criteria select(Property<T, ?>... properties) {
+        return select(LambdaUtil.propertyNames(properties));
+    }
+
+    /**
+     * 追加以AND连接的条件
+     *
+     * @param condition 条件
+     * @return 当前查询条件
+     */
+    public Criteria and(Condition condition) {
+        conditions.add(condition);
+        condition.collect(values);
+        condition.shape(shape.append(';'));
+        return this;
+    }
+
+    /**
+     * 按属性升序排列
+     *
+     * @param property 属性名
+     * @return 当前查询条件
+     */
+    public Criteria orderBy(String property) {
+        orders.add(new Object[] {property, false});
+        shape.append(";^").append(property);
+        return this;
+    }
+
+    /**
+     * 按属性升序排列
+     *
+     * @param property 属性的getter方法引用
+     * @param <T> 实体类型
+     * @return 当前查询条件
+     */
+    public <T> Criteria orderBy(Property<T, ?> property) {
+        return orderBy(LambdaUtil.propertyName(property));
+    }
+
+    /**
+     * 按属性降序排列
+     *
+     * @param property 属性名
+     * @return 当前查询条件
+     */
+    public Criteria orderByDesc(String property) {
+        orders.add(new Object[] {property, true});
+        shape.append(";v").append(property);
+        return this;
+    }
+
+    /**
+     * 按属性降序排列
+     *
+     * @param property 属性的getter方法引用
+     * @param <T> 实体类型
+     * @return 当前查询条件
+     */
+    public <T> Criteria orderByDesc(Property<T, ?> property) {
+        return orderByDesc(LambdaUtil.propertyName(property));
+    }
+
+    /**
+     * 限制返回的记录数
+     *
+     * @param rows 最多返回的记录数
+     * @return 当前查询条件
+     */
+    public Criteria limit(int rows) {
+        if (limit == null) {
+            shape.append(";limit");
+        }
+        limit = rows;
+        return this;
+    }
+
+    /**
+     * 获取条件值，供MyBatis绑定参数使用
+     *
+     * @return 条件值
+     */
+    public List<Object> getValues() {
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * 获取最多返回的记录数，供MyBatis绑定参数使用
+     *
+     * @return 最多返回的记录数，未限制时返回null
+     */
+    public Integer getLimit() {
+        return limit;
+    }
+
+    /**
+     * 获取语句形态标识，形态相同的查询生成相同的SQL
+     *
+     * @return 语句形态标识
+     */
+    String shape() {
+        return shape.toString();
+    }
+
+    /**
+     * 获取查询的列
+     *
+     * @param table 表信息
+     * @return 查询的列，未指定时返回null
+     */
+    String[] selectColumns(TableInfo table) {
+        if (selects.isEmpty()) {
+            return null;
+        }
+        return selects.stream().map(property -> TableInfo.selectColumnName(table.field(property)))
+            .toArray(String[]::new);
+    }
+
+    /**
+     * 将条件和排序添加到SQL中
+     *
+     * @param sql SQL
+     * @param table 表信息
+     * @param withOrders 是否添加排序
+     * @return SQL
+     */
+    SQL apply(SQL sql, TableInfo table, boolean withOrders) {
+        int[] index = {0};
+        for (Condition condition : conditions) {
+            sql.WHERE(condition.render(table, index));
+        }
+        if (withOrders) {
+            for (Object[] order : orders) {
+                sql.ORDER_BY(table.columnName((String)order[0]) + ((Boolean)order[1] ? " DESC" : ""));
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * 等于，value为null时为 {@code IS NULL}
+     *
+     * @param property 属性名
+     * @param value 值
+     * @return 条件
+     */
+    public static Condition eq(String property, Object value) {
+        return value == null ? isNull(property) : new Condition(property, "=", value);
+    }
+
+    /**
+     * 等于，value为null时为 {@code IS NULL}
+     *
+     * @param property 属性的getter方法引用
+     * @param value 值
+     * @param <T> 实体类型
+     * @return 条件
+     */
+    public static <T> Condition eq(Property<T, ?> property, Object value) {
+        return eq(LambdaUtil.propertyName(property), value);
+    }
+
+    /**
+     * 不等于，value为null时为 {@code IS NOT NULL}
+     *
+     * @param property 属性名
+     * @param value 值
+     * @return 条件
+     */
+    public static Condition ne(String property, Object value) {
+        return value == null ? isNotNull(property) : new Condition(property, "<>", value);
+    }
+
+    /**
+     * 不等于，value为null时为 {@code IS NOT NULL}
+     *
+     * @param property 属性的getter方法引用
+     * @param value 值
+     * @param <T> 实体类型
+     * @return 条件
+     */
+    public static <T> Condition ne(Property<T, ?> property, Object value) {
+        return ne(LambdaUtil.propertyName(property), value);
+    }
+
+    /**
+     * 大于
+     *
+     * @param property 属性名
+     * @param value 值
+     * @return 条件
+     */
+    public static Condition gt(String property, Object value) {
+        return new Condition(property, ">", value);
+    }
+
+    /**
+     * 大于
+     *
+     * @param property 属性的getter方法引用
+     * @param value 值
+     * @param <T> 实体类型
+     * @return 条件
+     */
+    public static <T> Condition gt(Property<T, ?> property, Object value) {
+        return gt(LambdaUtil.propertyName(property), value);
+    }
+
+    /**
+     * 大于等于
+     *
+     * @param property 属性名
+     * @param value 值
+     * @return 条件
+     */
+    public static Condition ge(String property, Object value) {
+        return new Condition(property, ">=", value);
+    }
+
+    /**
+     * 大于等于
+     *
+     * @param property 属性的getter方法引用
+     * @param value 值
+     * @param <T> 实体类型
+     * @return 条件
+     */
+    public static <T> Condition ge(Property<T, ?> property, Object value) {
+        return ge(LambdaUtil.propertyName(property), value);
+    }
+
+    /**
+     * 小于
+     *
+     * @param property 属性名
+     * @param value 值
+     * @return 条件
+     */
+    public static Condition lt(String property, Object value) {
+        return new Condition(property, "<", value);
+    }
+
+    /**
+     * 小于
+     *
+     * @param property 属性的getter方法引用
+     * @param value 值
+     * @param <T> 实体类型
+     * @return 条件
+     */
+    public static <T> Condition lt(Property<T, ?> property, Object value) {
+        return lt(LambdaUtil.propertyName(property), value);
+    }
+
+    /**
+     * 小于等于
+     *
+     * @param property 属性名
+     * @param value 值
+     * @return 条件
+     */
+    public static Condition le(String property, Object value) {
+        return new Condition(property, "<=", value);
+    }
+
+    /**
+     * 小于等于
+     *
+     * @param property 属性的getter方法引用
+     * @param value 值
+     * @param <T> 实体类型
+     * @return 条件
+     */
+    public static <T> Condition le(Property<T, ?> property, Object value) {
+        return le(LambdaUtil.propertyName(property), value);
+    }
+
+    /**
+     * LIKE匹配
+     *
+     * @param property 属性名
+     * @param pattern 匹配模式，如 "abc%"
+     * @return 条件
+     */
+    public static Condition like(String property, String pattern) {
+        return new Condition(property, "LIKE", pattern);
+    }
+
+    /**
+     * LIKE匹配
+     *
+     * @param property 属性的getter方法引用
+     * @param pattern 匹配模式，如 "abc%"
+     * @param <T> 实体类型
+     * @return 条件
+     */
+    public static <T> Condition like(Property<T, ?> property, String pattern) {
+        return like(LambdaUtil.propertyName(property), pattern);
+    }
+
+    /**
+     * 为null
+     *
+     * @param property 属性名
+     * @return 条件
+     */
+    public static Condition isNull(String property) {
+        return new Condition(property, "IS NULL", null);
+    }
+
+    /**
+     * 为null
+     *
+     * @param property 属性的getter方法引用
+     * @param <T> 实体类型
+     * @return 条件
+     */
+    public static <T> Condition isNull(Property<T, ?> property) {
+        return isNull(LambdaUtil.propertyName(property));
+    }
+
+    /**
+     * 不为null
+     *
+     * @param property 属性名
+     * @return 条件
+     */
+    public static Condition isNotNull(String property) {
+        return new Condition(property, "IS NOT NULL", null);
+    }
+
+    /**
+     * 不为null
+     *
+     * @param property 属性的getter方法引用
+     * @param <T> 实体类型
+     * @return 条件
+     */
+    public static <T> Condition isNotNull(Property<T, ?> property) {
+        return isNotNull(LambdaUtil.propertyName(property));
+    }
+
+    /**
+     * 在集合中，集合为空时条件恒为假。
+     * <p>
+     * 值的数量超过 {@link BaseMapper.SelectByPrimaryKeyInSqlProvider#MAX_IN_SIZE} 时按此长度拆分，
+     * 生成形如 {@code (id IN (...) OR id IN (...))} 的条件，每个IN列表的长度都补齐到2的幂。
+     *
+     * @param property 属性名
+     * @param values 值集合
+     * @param <T> 值类型
+     * @return 条件
+     */
+    public static <T> Condition in(String property, Collection<T> values) {
+        List<T> list = new ArrayList<>(values);
+        if (list.size() <= BaseMapper.SelectByPrimaryKeyInSqlProvider.MAX_IN_SIZE) {
+            return new Condition(property, "IN", pad(list));
+        }
+        List<List<T>> chunks = CollectionUtil.partition(list, BaseMapper.SelectByPrimaryKeyInSqlProvider.MAX_IN_SIZE);
+        Condition[] conditions = new Condition[chunks.size()];
+        for (int i = 0; i < conditions.length; i++) {
+            conditions[i] = new Condition(property, "IN", pad(new ArrayList<>(chunks.get(i))));
+        }
+        return or(conditions);
+    }
+
+    /**
+     * 用最后一个值将列表补齐到2的幂
+     *
+     * @param list 值列表
+     * @param <T> 值类型
+     * @return 补齐后的列表
+     */
+    private static <T> List<T> pad(List<T> list) {
+        int size = list.size();
+        int bucket = size == 0 ? 0 : Integer.highestOneBit(size) == size ? size : Integer.highestOneBit(size) << 1;
+        T last = size == 0 ? null : list.get(size - 1);
+        while (list.size() < bucket) {
+            list.add(last);
+        }
+        return list;
+    }
+
+    /**
+     * 在集合中，集合为空时条件恒为假
+     *
+     * @param property 属性的getter方法引用
+     * @param values 值集合
+     * @param <T> 实体类型
+     * @param <V> 值类型
+     * @return 条件
+     */
+    public static <T, V> Condition in(Property<T, ?> property, Collection<V> values) {
+        return in(LambdaUtil.propertyName(property), values);
+    }
+
+    /**
+     * 以OR连接的条件，没有子条件时条件恒为假
+     *
+     * @param conditions 条件
+     * @return 条件
+     */
+    public static Condition or(Condition... conditions) {
+        return new Condition(conditions);
+    }
+
+    /**
+     * 单个查询条件
+     */
+    public static final class Condition {
+
+        /**
+         * 属性名
+         */
+        private final String property;
+
+        /**
+         * 运算符
+         */
+        private final String operator;
+
+        /**
+         * 条件值，IN条件为值列表
+         */
+        private final Object value;
+
+        /**
+         * 以OR连接的子条件
+         */
+        private final Condition[] children;
+
+        private Condition(String property, String operator, Object value) {
+            this.property = property;
+            this.operator = operator;
+            this.value = value;
+            this.children = null;
+        }
+
+        private Condition(Condition[] children) {
+            this.property = null;
+            this.operator = "OR";
+            this.value = null;
+            this.children = children.clone();
+        }
+
+        /**
+         * 按顺序收集条件值
+         *
+         * @param values 条件值列表
+         */
+        private void collect(List<Object> values) {
+            if (children != null) {
+                for (Condition child : children) {
+                    child.collect(values);
+                }
+            } else if (value instanceof List && "IN".equals(operator)) {
+                values.addAll((List<?>)value);
+            } else if (!operator.startsWith("IS ")) {
+                values.add(value);
+            }
+        }
+
+        /**
+         * 追加语句形态标识
+         *
+         * @param shape 语句形态标识
+         */
+        private void shape(StringBuilder shape) {
+            if (children != null) {
+                shape.append('(');
+                for (Condition child : children) {
+                    child.shape(shape);
+                    shape.append('|');
+                }
+                shape.append(')');
+            } else {
+                shape.append(property).append(' ').append(operator);
+                if (value instanceof List && "IN".equals(operator)) {
+                    shape.append(((List<?>)value).size());
+                }
+            }
+        }
+
+        /**
+         * 生成条件SQL，条件值以 {@code #{values[i]}} 绑定，绑定方式与插入、更新时相同（参见
+         * {@link TableInfo#bindParameter(Field, String, String)}），如
+         * {@link cn.yusiwen.commons.mapper.annotation.JSONColumn} 字段的值转换为JSONB
+         *
+         * @param table 表信息
+         * @param index 下一个条件值的下标
+         * @return 条件SQL
+         */
+        private String render(TableInfo table, int[] index) {
+            if (children != null) {
+                // 与空的IN条件相同，空的OR条件恒为假
+                if (children.length == 0) {
+                    return "1 = 0";
+                }
+                StringBuilder sql = new StringBuilder("(");
+                for (int i = 0; i < children.length; i++) {
+                    sql.append(i == 0 ? "" : " OR ").append(children[i].render(table, index));
+                }
+                return sql.append(')').toString();
+            }
+            Field field = table.field(property);
+            String column = TableInfo.columnName(field);
+            if (operator.startsWith("IS ")) {
+                return column + " " + operator;
+            }
+            if ("IN".equals(operator)) {
+                int size = ((List<?>)value).size();
+                if (size == 0) {
+                    return "1 = 0";
+                }
+                StringBuilder sql = new StringBuilder(column).append(" IN (");
+                for (int i = 0; i < size; i++) {
+                    sql.append(i == 0 ? "" : ", ").append(bind(field, index));
+                }
+                return sql.append(')').toString();
+            }
+            return column + " " + operator + " " + bind(field, index);
+        }
+
+        /**
+         * 绑定下一个条件值
+         *
+         * @param field 条件的字段
+         * @param index 下一个条件值的下标
+         * @return 参数格式
+         */
+        private static String bind(Field field, int[] index) {
+            return TableInfo.bindParameter(field, "", "values[" + index[0]++ + "]");
+        }
+    }
+}
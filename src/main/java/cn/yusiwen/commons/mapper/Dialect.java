@@ -0,0 +1,161 @@
+package cn.yusiwen.commons.mapper;
+
+import java.util.Locale;
+
+/**
+ * 数据库方言，描述不同数据库在 SQL 生成上的差异。
+ * <p>
+ * 方言通过 MyBatis 的 {@code databaseId} 解析（参见 {@link org.apache.ibatis.mapping.VendorDatabaseIdProvider}）， 未配置
+ * {@code databaseId} 或无法识别时使用 {@link #DEFAULT}。
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+public enum Dialect {
+
+    /**
+     * PostgreSQL，协议层参数个数上限为 65535
+     */
+    POSTGRESQL(65535),
+
+    /**
+     * openGauss，其 JDBC 驱动基于较早的 pgjdbc，参数个数上限为 32767
+     */
+    OPENGAUSS(32767),
+
+    /**
+     * MySQL / MariaDB，预编译语句参数个数上限为 65535
+     */
+    MYSQL(65535),
+
+    /**
+     * Oracle，单条语句绑定变量个数上限为 65535
+     */
+    ORACLE(65535),
+
+    /**
+     * H2
+     */
+    H2(65535),
+
+    /**
+     * 未知数据库，参数个数上限取以上方言中的最小值
+     */
+    DEFAULT(32767);
+
+    /**
+     * 游标查询每次从数据库获取的行数
+     */
+    public static final int CURSOR_FETCH_SIZE = 1000;
+
+    /**
+     * 单条语句允许的最大绑定参数个数
+     */
+    private final int maxBindParameters;
+
+    Dialect(int maxBindParameters) {
+        this.maxBindParameters = maxBindParameters;
+    }
+
+    /**
+     * 根据 MyBatis 的 databaseId 解析方言
+     *
+     * @param databaseId databaseId，一般为数据库产品名或其别名，可以为null
+     * @return 对应的方言，无法识别时返回 {@link #DEFAULT}
+     */
+    public static Dialect of(String databaseId) {
+        if (databaseId == null) {
+            return DEFAULT;
+        }
+        String id = databaseId.toLowerCase(Locale.ROOT);
+        if (id.contains("gauss")) {
+            return OPENGAUSS;
+        } else if (id.contains("postgres")) {
+            return POSTGRESQL;
+        } else if (id.contains("mysql") || id.contains("mariadb")) {
+            return MYSQL;
+        } else if (id.contains("oracle")) {
+            return ORACLE;
+        } else if (id.contains("h2")) {
+            return H2;
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * 单条语句允许的最大绑定参数个数
+     *
+     * @return 最大绑定参数个数
+     */
+    public int maxBindParameters() {
+        return maxBindParameters;
+    }
+
+    /**
+     * 是否支持将数组作为一个绑定参数，并使用 {@code = ANY(?)} 等数组运算
+     *
+     * @return PostgreSQL和openGauss返回true
+     */
+    public boolean supportsArrayParameters() {
+        return this == POSTGRESQL || this == OPENGAUSS;
+    }
+
+    /**
+     * 是否支持 {@code LIMIT n} 限制返回行数，不支持时使用SQL标准的 {@code FETCH FIRST n ROWS ONLY}
+     *
+     * @return PostgreSQL、openGauss、MySQL和H2返回true
+     */
+    public boolean supportsLimit() {
+        return this == POSTGRESQL || this == OPENGAUSS || this == MYSQL || this == H2;
+    }
+
+    /**
+     * 是否支持行值比较，如 {@code (a, b) > (?, ?)}
+     *
+     * @return PostgreSQL、openGauss、MySQL和H2返回true
+     */
+    public boolean supportsRowValueComparison() {
+        return this == POSTGRESQL || this == OPENGAUSS || this == MYSQL || this == H2;
+    }
+
+    /**
+     * 是否支持 {@code INSERT ... RETURNING} 返回插入行的列
+     *
+     * @return PostgreSQL和openGauss返回true
+     */
+    public boolean supportsReturning() {
+        return this == POSTGRESQL || this == OPENGAUSS;
+    }
+
+    /**
+     * JDBC驱动是否可以通过 {@code Connection.prepareStatement(sql, columnNames)} 返回插入行的任意列，
+     * 而不仅是自增主键
+     *
+     * @return H2和Oracle返回true
+     */
+    public boolean supportsGeneratedKeyColumns() {
+        return this == H2 || this == ORACLE;
+    }
+
+    /**
+     * 游标查询使用的fetchSize。
+     * <p>
+     * MySQL Connector/J 默认将整个结果集读入内存，fetchSize为 {@link Integer#MIN_VALUE} 时逐行流式读取；
+     * 其他数据库使用 {@link #CURSOR_FETCH_SIZE}，PostgreSQL和openGauss还需要在关闭自动提交的连接上执行才会使用服务端游标。
+     *
+     * @return fetchSize
+     */
+    public int cursorFetchSize() {
+        return this == MYSQL ? Integer.MIN_VALUE : CURSOR_FETCH_SIZE;
+    }
+
+    /**
+     * 计算多行语句中单条语句最多可以包含的行数
+     *
+     * @param parametersPerRow 每行的绑定参数个数
+     * @return 单条语句最多包含的行数，至少为1
+     */
+    public int maxRows(int parametersPerRow) {
+        return Math.max(1, maxBindParameters / Math.max(1, parametersPerRow));
+    }
+}
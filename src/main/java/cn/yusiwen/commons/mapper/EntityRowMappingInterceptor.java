@@ -0,0 +1,497 @@
+package cn.yusiwen.commons.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * 实体行映射插件，将查询结果直接映射为实体，不经过 MyBatis 的通用结果处理。
+ * <p>
+ * MyBatis 对每一行都要通过 ObjectFactory 反射创建对象、通过 MetaObject 按属性名查找setter并赋值。对于使用
+ * {@link MapperSqlCompiler} 生成的实体 ResultMap（参见 {@link MapperSqlCompiler#ENTITY_RESULT_MAP}）的查询，
+ * 此插件在读取结果集前按列的位置确定每列对应的 TypeHandler 和 {@link FieldAccessor}，逐行按列序号读取值并直接写入字段，
+ * 实体通过缓存的构造器 MethodHandle 创建。返回 {@link Cursor} 的查询同样适用。
+ * <p>
+ * 以下情况仍由 MyBatis 处理：使用其他 ResultMap 的语句、带 {@link RowBounds} 或 {@link ResultHandler} 的调用、多结果集的语句。
+ * 字段通过 {@link FieldAccessor} 写入，实体有public setter时调用setter。
+ * <p>
+ * 语句、RowBounds 和 ResultHandler 取自被拦截的 {@link Executor} 查询方法的参数，在当前线程中传递给随后处理结果集的
+ * {@link ResultSetHandler}，每次查询只使用一次，结果处理中发起的嵌套查询和延迟加载仍由 MyBatis 处理。
+ * <p>
+ * MyBatis 插件按注册顺序由内向外包装，此插件需要直接拦截 {@link DefaultResultSetHandler}，因此必须在其他 {@link ResultSetHandler}
+ * 插件之前注册：{@link MapperSqlCompiler} 注册mapper时检查注册顺序，顺序错误时抛出 {@link IllegalStateException}；
+ * 之后才添加的插件使 {@link ResultSetHandler} 已被包装时，此插件不再拦截结果处理，全部由 MyBatis 处理。
+ * 之后注册的插件（如 {@link ChangeTrackingInterceptor}）照常处理此插件返回的结果和游标。
+ *
+ * <p>
+ * 使用示例：
+ *
+ * <pre>
+ * configuration.addInterceptor(new EntityRowMappingInterceptor());
+ * configuration.addInterceptor(new ChangeTrackingInterceptor());
+ * MapperSqlCompiler.addMapper(configuration, UserMapper.class);
+ * </pre>
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "query",
+        args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type = Executor.class, method = "query",
+        args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class,
+            BoundSql.class}),
+    @Signature(type = Executor.class, method = "queryCursor",
+        args = {MappedStatement.class, Object.class, RowBounds.class}),
+    @Signature(type = ResultSetHandler.class, method = "handleResultSets", args = Statement.class),
+    @Signature(type = ResultSetHandler.class, method = "handleCursorResultSets", args = Statement.class)})
+public class EntityRowMappingInterceptor implements Interceptor {
+
+    /**
+     * 最多缓存的行映射数量
+     */
+    private static final int MAX_CACHE_SIZE = 1024;
+
+    /**
+     * 当前线程正在执行、可以直接映射的查询语句，由Executor的查询方法设置，处理结果集时取出并清除
+     */
+    private static final ThreadLocal<MappedStatement> STATEMENT = new ThreadLocal<>();
+
+    /**
+     * key -> 实体类型 value -> 无参构造器，类型为 {@code ()Object}
+     */
+    private static final ClassValue<MethodHandle> CONSTRUCTORS = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            try {
+                Constructor<?> constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                return MethodHandles.lookup().unreflectConstructor(constructor)
+                    .asType(MethodType.methodType(Object.class));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("获取" + type.getName() + "的无参构造器错误!", e);
+            }
+        }
+    };
+
+    /**
+     * key -> ResultMap id和结果集的列 value -> 行映射
+     */
+    private final Map<String, RowMapper> cache = new ConcurrentHashMap<>(16);
+
+    /**
+     * 创建一个新的EntityRowMappingInterceptor实例。
+     */
+    public EntityRowMappingInterceptor() {
+        // this constructor is empty
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (invocation.getTarget() instanceof Executor) {
+            return query(invocation);
+        }
+        MappedStatement statement = STATEMENT.get();
+        if (statement == null) {
+            return invocation.proceed();
+        }
+        // 只用于本次查询的结果集，结果处理中的嵌套查询不再使用
+        STATEMENT.remove();
+        ResultSet resultSet = ((Statement)invocation.getArgs()[0]).getResultSet();
+        if (resultSet == null) {
+            return invocation.proceed();
+        }
+        Configuration configuration = statement.getConfiguration();
+        RowMapper mapper = rowMapper(configuration, statement.getResultMaps().get(0), resultSet);
+        if ("handleCursorResultSets".equals(invocation.getMethod().getName())) {
+            return new RowCursor(resultSet, mapper);
+        }
+        List<Object> rows = new ArrayList<>();
+        try {
+            while (resultSet.next()) {
+                rows.add(mapper.map(resultSet));
+            }
+        } finally {
+            resultSet.close();
+        }
+        return rows;
+    }
+
+    /**
+     * 执行Executor的查询方法，可以直接映射时在当前线程中记录语句，结束后恢复为外层查询记录的语句
+     *
+     * @param invocation Executor的查询调用
+     * @return 查询结果
+     * @throws Throwable 查询失败
+     */
+    private static Object query(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement statement = (MappedStatement)args[0];
+        RowBounds rowBounds = (RowBounds)args[2];
+        ResultHandler<?> resultHandler = args.length > 3 ? (ResultHandler<?>)args[3] : null;
+        boolean mappable = isEntityResultMap(statement) && statement.getResultSets() == null && resultHandler == null
+            && rowBounds.getOffset() == RowBounds.NO_ROW_OFFSET && rowBounds.getLimit() == RowBounds.NO_ROW_LIMIT;
+        MappedStatement previous = STATEMENT.get();
+        STATEMENT.set(mappable ? statement : null);
+        try {
+            return invocation.proceed();
+        } finally {
+            if (previous == null) {
+                STATEMENT.remove();
+            } else {
+                STATEMENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 包装Executor和ResultSetHandler，ResultSetHandler已被其他插件包装时不再包装，结果全部由MyBatis处理
+     *
+     * @param target 被包装的对象
+     * @return 包装后的对象
+     */
+    @Override
+    public Object plugin(Object target) {
+        if (target instanceof ResultSetHandler && !(target instanceof DefaultResultSetHandler)) {
+            return target;
+        }
+        return Interceptor.super.plugin(target);
+    }
+
+    /**
+     * 检查插件的注册顺序，配置中有此插件时，必须在其他拦截 {@link ResultSetHandler} 的插件之前注册
+     *
+     * @param configuration MyBatis配置
+     * @throws IllegalStateException 在其他ResultSetHandler插件之后注册
+     */
+    static void checkOrder(Configuration configuration) {
+        String previous = null;
+        for (Interceptor interceptor : configuration.getInterceptors()) {
+            if (interceptor instanceof EntityRowMappingInterceptor) {
+                if (previous != null) {
+                    throw new IllegalStateException(
+                        "EntityRowMappingInterceptor必须在其他ResultSetHandler插件之前注册，当前在" + previous + "之后!");
+                }
+                return;
+            }
+            if (previous == null && interceptsResultSetHandler(interceptor)) {
+                previous = interceptor.getClass().getName();
+            }
+        }
+    }
+
+    /**
+     * 插件是否拦截 {@link ResultSetHandler}
+     *
+     * @param interceptor 插件
+     * @return 拦截ResultSetHandler返回true
+     */
+    private static boolean interceptsResultSetHandler(Interceptor interceptor) {
+        Intercepts intercepts = interceptor.getClass().getAnnotation(Intercepts.class);
+        if (intercepts == null) {
+            return false;
+        }
+        for (Signature signature : intercepts.value()) {
+            if (signature.type() == ResultSetHandler.class) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 语句是否使用实体ResultMap
+     *
+     * @param statement 语句
+     * @return 使用实体ResultMap返回true
+     */
+    private static boolean isEntityResultMap(MappedStatement statement) {
+        return statement.getResultMaps().size() == 1
+            && statement.getResultMaps().get(0).getId().endsWith("." + MapperSqlCompiler.ENTITY_RESULT_MAP);
+    }
+
+    /**
+     * 获取结果集对应的行映射，按ResultMap和结果集的列缓存
+     *
+     * @param configuration MyBatis配置
+     * @param resultMap 实体ResultMap
+     * @param resultSet 结果集
+     * @return 行映射
+     * @throws SQLException 读取结果集元数据失败
+     */
+    private RowMapper rowMapper(Configuration configuration, ResultMap resultMap, ResultSet resultSet)
+        throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        String[] labels = new String[metaData.getColumnCount()];
+        StringBuilder key = new StringBuilder(resultMap.getId());
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = configuration.isUseColumnLabel() ? metaData.getColumnLabel(i + 1)
+                : metaData.getColumnName(i + 1);
+            key.append(',').append(labels[i]);
+        }
+        RowMapper mapper = cache.get(key.toString());
+        if (mapper == null) {
+            mapper = new RowMapper(configuration, resultMap, labels);
+            if (cache.size() < MAX_CACHE_SIZE) {
+                cache.putIfAbsent(key.toString(), mapper);
+            }
+        }
+        return mapper;
+    }
+
+    /**
+     * 按列序号将一行映射为实体
+     */
+    private static final class RowMapper {
+
+        /**
+         * 实体的无参构造器
+         */
+        private final MethodHandle constructor;
+
+        /**
+         * 映射的列序号，从1开始
+         */
+        private final int[] columns;
+
+        /**
+         * 与columns对应的TypeHandler
+         */
+        private final TypeHandler<?>[] typeHandlers;
+
+        /**
+         * 与columns对应的字段访问器
+         */
+        private final FieldAccessor[] accessors;
+
+        /**
+         * 值为null时是否写入字段，与columns对应，参见 {@link Configuration#isCallSettersOnNulls()}
+         */
+        private final boolean[] setNulls;
+
+        /**
+         * 所有列都为null时是否仍返回实体，参见 {@link Configuration#isReturnInstanceForEmptyRow()}
+         */
+        private final boolean returnInstanceForEmptyRow;
+
+        RowMapper(Configuration configuration, ResultMap resultMap, String[] labels) {
+            Class<?> type = resultMap.getType();
+            Map<String, ResultMapping> mappings = new HashMap<>(resultMap.getPropertyResultMappings().size() * 2);
+            for (ResultMapping mapping : resultMap.getPropertyResultMappings()) {
+                mappings.putIfAbsent(mapping.getColumn().toUpperCase(Locale.ENGLISH), mapping);
+            }
+            List<Integer> columnList = new ArrayList<>(labels.length);
+            List<ResultMapping> mappingList = new ArrayList<>(labels.length);
+            for (int i = 0; i < labels.length; i++) {
+                ResultMapping mapping = mappings.get(labels[i].toUpperCase(Locale.ENGLISH));
+                if (mapping != null) {
+                    columnList.add(i + 1);
+                    mappingList.add(mapping);
+                }
+            }
+            this.constructor = CONSTRUCTORS.get(type);
+            this.columns = new int[columnList.size()];
+            this.typeHandlers = new TypeHandler<?>[columns.length];
+            this.accessors = new FieldAccessor[columns.length];
+            this.setNulls = new boolean[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                ResultMapping mapping = mappingList.get(i);
+                Field field = ReflectUtil.getField(type, mapping.getProperty());
+                if (field == null) {
+                    throw new IllegalStateException(type.getName() + "没有" + mapping.getProperty() + "字段.");
+                }
+                columns[i] = columnList.get(i);
+                typeHandlers[i] = mapping.getTypeHandler();
+                accessors[i] = FieldAccessor.of(field);
+                setNulls[i] = configuration.isCallSettersOnNulls() && !field.getType().isPrimitive();
+            }
+            this.returnInstanceForEmptyRow = configuration.isReturnInstanceForEmptyRow();
+        }
+
+        /**
+         * 将结果集的当前行映射为实体
+         *
+         * @param resultSet 结果集
+         * @return 实体，所有列都为null且未配置returnInstanceForEmptyRow时返回null
+         * @throws SQLException 读取结果集失败
+         */
+        Object map(ResultSet resultSet) throws SQLException {
+            Object entity = newInstance();
+            boolean found = false;
+            for (int i = 0; i < columns.length; i++) {
+                Object value = typeHandlers[i].getResult(resultSet, columns[i]);
+                if (value != null) {
+                    found = true;
+                    accessors[i].set(entity, value);
+                } else if (setNulls[i]) {
+                    accessors[i].set(entity, null);
+                }
+            }
+            return found || returnInstanceForEmptyRow ? entity : null;
+        }
+
+        /**
+         * 创建实体
+         *
+         * @return 实体
+         */
+        private Object newInstance() {
+            try {
+                return constructor.invokeExact();
+            } catch (Error | RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("创建实体错误!", e);
+            }
+        }
+    }
+
+    /**
+     * 逐行映射的游标，行为与MyBatis的默认游标相同：只能获取一次迭代器，读取完或关闭时关闭结果集
+     */
+    private static final class RowCursor implements Cursor<Object> {
+
+        private final ResultSet resultSet;
+
+        private final RowMapper mapper;
+
+        private boolean opened;
+
+        private boolean consumed;
+
+        private boolean closed;
+
+        private boolean iteratorRetrieved;
+
+        private int index = -1;
+
+        RowCursor(ResultSet resultSet, RowMapper mapper) {
+            this.resultSet = resultSet;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return opened && !consumed && !closed;
+        }
+
+        @Override
+        public boolean isConsumed() {
+            return consumed;
+        }
+
+        @Override
+        public int getCurrentIndex() {
+            return index;
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            if (iteratorRetrieved) {
+                throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+            }
+            if (closed) {
+                throw new IllegalStateException("A Cursor is already closed.");
+            }
+            iteratorRetrieved = true;
+            return new Iterator<Object>() {
+
+                private boolean fetched;
+
+                private Object next;
+
+                @Override
+                public boolean hasNext() {
+                    if (!fetched) {
+                        fetched = fetch();
+                    }
+                    return fetched;
+                }
+
+                @Override
+                public Object next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    fetched = false;
+                    index++;
+                    return next;
+                }
+
+                /**
+                 * 读取下一行
+                 *
+                 * @return 有下一行返回true
+                 */
+                private boolean fetch() {
+                    if (closed || consumed) {
+                        return false;
+                    }
+                    try {
+                        opened = true;
+                        if (resultSet.next()) {
+                            next = mapper.map(resultSet);
+                            return true;
+                        }
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("读取游标错误!", e);
+                    }
+                    consumed = true;
+                    closeResultSet();
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                closeResultSet();
+            }
+        }
+
+        /**
+         * 关闭结果集，语句由执行器设置为随结果集关闭
+         */
+        private void closeResultSet() {
+            try {
+                resultSet.close();
+            } catch (SQLException e) {
+                // ignore
+            }
+        }
+    }
+}
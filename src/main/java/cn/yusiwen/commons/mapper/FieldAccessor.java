@@ -0,0 +1,388 @@
+package cn.yusiwen.commons.mapper;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * 字段访问器，通过生成的访问器类读写字段。
+ * <p>
+ * 字段有public的getter、setter（如Lombok生成的 {@code getName()}、{@code setName(String)}）时，访问器在创建时通过
+ * {@link LambdaMetafactory} 为其生成实现 {@link Function}、{@link BiConsumer} 的类，类中直接调用getter、setter，
+ * 与普通代码一样可以被JIT内联；读写经过getter、setter，与MyBatis按属性读写实体的方式一致。生成的类定义在本类的类加载器中，
+ * 实体类及其外部类必须是public且对该类加载器可见。
+ * <p>
+ * 没有符合条件的getter、setter的字段（包括静态字段）使用 {@link MethodHandle} 读写，性能与 {@link Field#get(Object)} 相近；
+ * 无法通过MethodHandle写入的字段（如静态final字段）写入时退回到 {@link Field#set(Object, Object)}。
+ * <p>
+ * 访问器按字段的声明类缓存在 {@link ClassValue} 中，每个字段只创建一次，类被卸载时随之回收。频繁访问同一组字段时（如逐行读取实体）
+ * 应持有访问器数组，避免每次按字段查找访问器。
+ *
+ * <p>
+ * 使用示例：
+ *
+ * <pre>
+ * FieldAccessor accessor = FieldAccessor.of(field);
+ * Object value = accessor.get(entity);
+ * accessor.set(entity, value);
+ * </pre>
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+public final class FieldAccessor {
+
+    /**
+     * 读字段的MethodHandle类型，与 {@link Function#apply(Object)} 相同
+     */
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * 写字段的MethodHandle类型，与 {@link BiConsumer#accept(Object, Object)} 相同
+     */
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /**
+     * key -> 字段的声明类 value -> (字段名 -> 访问器)
+     */
+    private static final ClassValue<Map<String, FieldAccessor>> ACCESSORS =
+        new ClassValue<Map<String, FieldAccessor>>() {
+            @Override
+            protected Map<String, FieldAccessor> computeValue(Class<?> type) {
+                return new ConcurrentHashMap<>(16);
+            }
+        };
+
+    /**
+     * 字段
+     */
+    private final Field field;
+
+    /**
+     * 读字段的访问器
+     */
+    private final Function<Object, Object> getter;
+
+    /**
+     * 写字段的访问器
+     */
+    private final BiConsumer<Object, Object> setter;
+
+    private FieldAccessor(Field field) {
+        ReflectUtil.makeAccessible(field);
+        this.field = field;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Function<Object, Object> generatedGetter = generateGetter(lookup, getterMethod(field));
+        this.getter = generatedGetter != null ? generatedGetter : new HandleGetter(lookup, field);
+        BiConsumer<Object, Object> generatedSetter = generateSetter(lookup, setterMethod(field));
+        this.setter = generatedSetter != null ? generatedSetter : new HandleSetter(lookup, field);
+    }
+
+    /**
+     * 获取字段的访问器，不存在时创建并缓存
+     *
+     * @param field 字段
+     * @return 访问器
+     */
+    public static FieldAccessor of(Field field) {
+        Map<String, FieldAccessor> accessors = ACCESSORS.get(field.getDeclaringClass());
+        FieldAccessor accessor = accessors.get(field.getName());
+        if (accessor == null) {
+            accessor = accessors.computeIfAbsent(field.getName(), name -> new FieldAccessor(field));
+        }
+        return accessor;
+    }
+
+    /**
+     * 获取多个字段的访问器
+     *
+     * @param fields 字段
+     * @return 访问器数组，与fields一一对应
+     */
+    public static FieldAccessor[] of(Field[] fields) {
+        FieldAccessor[] accessors = new FieldAccessor[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            accessors[i] = of(fields[i]);
+        }
+        return accessors;
+    }
+
+    /**
+     * 获取字段
+     *
+     * @return 字段
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * 是否通过生成的访问器类调用getter、setter读写字段
+     *
+     * @return getter和setter都是生成的访问器类时返回true
+     */
+    boolean isGenerated() {
+        return !(getter instanceof HandleGetter) && !(setter instanceof HandleSetter);
+    }
+
+    /**
+     * 获取字段值
+     *
+     * @param target 字段所属实例对象，静态字段可以为null
+     * @return 字段值，基本类型会被装箱
+     */
+    public Object get(Object target) {
+        try {
+            return getter.apply(target);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException(String.format("获取%s对象的%s字段值错误!", typeName(target), field.getName()),
+                e);
+        }
+    }
+
+    /**
+     * 设置字段值
+     *
+     * @param target 字段所属实例对象，静态字段可以为null
+     * @param value 需要设置的值
+     */
+    public void set(Object target, Object value) {
+        try {
+            setter.accept(target, value);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException(String.format("设置%s对象的%s字段值错误!", typeName(target), field.getName()),
+                e);
+        }
+    }
+
+    /**
+     * 获取实例对象的类名，用于错误信息
+     *
+     * @param target 实例对象
+     * @return 类名
+     */
+    private String typeName(Object target) {
+        return (target != null ? target.getClass() : field.getDeclaringClass()).getName();
+    }
+
+    /**
+     * 查找字段的getter，方法名为 {@code get} 加首字母大写的字段名，boolean字段也可以为 {@code is} 开头，返回类型与字段类型相同
+     *
+     * @param field 字段
+     * @return getter，不存在或无法生成访问器类时返回null
+     */
+    private static Method getterMethod(Field field) {
+        if (!generatable(field)) {
+            return null;
+        }
+        String[] prefixes = field.getType() == boolean.class ? new String[] {"is", "get"} : new String[] {"get"};
+        for (String prefix : prefixes) {
+            Method method = publicMethod(field.getDeclaringClass(), prefix + capitalize(field.getName()));
+            if (method != null && method.getReturnType() == field.getType()) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 查找字段的setter，方法名为 {@code set} 加首字母大写的字段名，参数类型与字段类型相同，返回类型不限（支持链式setter）
+     *
+     * @param field 字段
+     * @return setter，不存在或无法生成访问器类时返回null
+     */
+    private static Method setterMethod(Field field) {
+        if (!generatable(field)) {
+            return null;
+        }
+        return publicMethod(field.getDeclaringClass(), "set" + capitalize(field.getName()), field.getType());
+    }
+
+    /**
+     * 是否可以为字段生成访问器类：实例字段，且字段类型（基本类型取其包装类）可以被生成的类引用
+     *
+     * @param field 字段
+     * @return 可以生成时返回true
+     */
+    private static boolean generatable(Field field) {
+        return !Modifier.isStatic(field.getModifiers())
+            && linkable(MethodType.methodType(field.getType()).wrap().returnType());
+    }
+
+    /**
+     * 查找生成的访问器类可以直接调用的public实例方法
+     *
+     * @param type 类型
+     * @param name 方法名
+     * @param parameterTypes 参数类型
+     * @return 方法，不存在时返回null
+     */
+    private static Method publicMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            Method method = type.getMethod(name, parameterTypes);
+            return !Modifier.isStatic(method.getModifiers()) && linkable(method.getDeclaringClass()) ? method : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 生成的访问器类是否可以引用该类型：类型及其外部类都是public，且通过本类的类加载器可以加载到同一个类
+     *
+     * @param type 类型
+     * @return 可以引用时返回true
+     */
+    private static boolean linkable(Class<?> type) {
+        for (Class<?> enclosing = type; enclosing != null; enclosing = enclosing.getEnclosingClass()) {
+            if (!Modifier.isPublic(enclosing.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(type.getName(), false, FieldAccessor.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * 为getter生成实现 {@link Function} 的访问器类
+     *
+     * @param lookup 本类的Lookup
+     * @param method getter，可以为null
+     * @return 访问器，method为null或生成失败时返回null
+     */
+    @SuppressWarnings("unchecked")
+    @SuppressFBWarnings("EXS_EXCEPTION_SOFTENING_RETURN_FALSE")
+    private static Function<Object, Object> generateGetter(MethodHandles.Lookup lookup, Method method) {
+        if (method == null) {
+            return null;
+        }
+        try {
+            MethodHandle handle = lookup.unreflect(method);
+            return (Function<Object, Object>)LambdaMetafactory
+                .metafactory(lookup, "apply", MethodType.methodType(Function.class), GETTER_TYPE, handle,
+                    MethodType.methodType(method.getReturnType(), method.getDeclaringClass()).wrap())
+                .getTarget().invokeExact();
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * 为setter生成实现 {@link BiConsumer} 的访问器类
+     *
+     * @param lookup 本类的Lookup
+     * @param method setter，可以为null
+     * @return 访问器，method为null或生成失败时返回null
+     */
+    @SuppressWarnings("unchecked")
+    @SuppressFBWarnings("EXS_EXCEPTION_SOFTENING_RETURN_FALSE")
+    private static BiConsumer<Object, Object> generateSetter(MethodHandles.Lookup lookup, Method method) {
+        if (method == null) {
+            return null;
+        }
+        try {
+            MethodHandle handle = lookup.unreflect(method);
+            return (BiConsumer<Object, Object>)LambdaMetafactory
+                .metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class), SETTER_TYPE, handle,
+                    MethodType.methodType(void.class, method.getDeclaringClass(), method.getParameterTypes()[0])
+                        .wrap().changeReturnType(void.class))
+                .getTarget().invokeExact();
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * 通过MethodHandle读字段
+     */
+    private static final class HandleGetter implements Function<Object, Object> {
+
+        private final MethodHandle handle;
+
+        HandleGetter(MethodHandles.Lookup lookup, Field field) {
+            try {
+                MethodHandle getter = lookup.unreflectGetter(field);
+                this.handle = (Modifier.isStatic(field.getModifiers())
+                    ? MethodHandles.dropArguments(getter, 0, Object.class) : getter).asType(GETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(
+                    String.format("创建%s类的%s字段访问器错误!", field.getDeclaringClass().getName(), field.getName()), e);
+            }
+        }
+
+        @Override
+        @SuppressFBWarnings("EXS_EXCEPTION_SOFTENING_NO_CONSTRAINTS")
+        public Object apply(Object target) {
+            try {
+                return handle.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        }
+    }
+
+    /**
+     * 通过MethodHandle写字段，无法通过MethodHandle写入时使用 {@link Field#set(Object, Object)}
+     */
+    private static final class HandleSetter implements BiConsumer<Object, Object> {
+
+        private final Field field;
+
+        /**
+         * 写字段的MethodHandle，无法通过MethodHandle写入时为null
+         */
+        private final MethodHandle handle;
+
+        HandleSetter(MethodHandles.Lookup lookup, Field field) {
+            this.field = field;
+            MethodHandle setter;
+            try {
+                setter = lookup.unreflectSetter(field);
+                setter = (Modifier.isStatic(field.getModifiers()) ? MethodHandles.dropArguments(setter, 0, Object.class)
+                    : setter).asType(SETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                setter = null;
+            }
+            this.handle = setter;
+        }
+
+        @Override
+        @SuppressFBWarnings("EXS_EXCEPTION_SOFTENING_NO_CONSTRAINTS")
+        public void accept(Object target, Object value) {
+            try {
+                if (handle != null) {
+                    handle.invokeExact(target, value);
+                } else {
+                    field.set(target, value);
+                }
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        }
+    }
+}
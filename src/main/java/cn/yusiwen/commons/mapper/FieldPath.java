@@ -0,0 +1,142 @@
+package cn.yusiwen.commons.mapper;
+
+import java.lang.reflect.Field;
+
+/**
+ * 预先解析的字段路径，由 {@link ReflectUtil#compilePath(String)} 创建，可以重复使用。
+ * <p>
+ * 路径在创建时拆分为字段名，每一级缓存最近一次访问的对象类型及其字段访问器（{@link FieldAccessor}），对象类型不变时不再查找字段。
+ * 取值规则与 {@link ReflectUtil#getValueByFieldPath(Object, String)} 相同：某一级的值为null时返回null，
+ * 某一级的对象为基本类型包装类或字符串时直接返回该对象。
+ *
+ * <p>
+ * 使用示例：
+ *
+ * <pre>
+ * FieldPath path = ReflectUtil.compilePath("user.name");
+ * Object name = path.get(product);
+ * </pre>
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+public final class FieldPath {
+
+    /**
+     * 字段路径
+     */
+    private final String path;
+
+    /**
+     * 每一级字段
+     */
+    private final Step[] steps;
+
+    /**
+     * 创建字段路径
+     *
+     * @param path 字段路径，形如 user.name
+     */
+    FieldPath(String path) {
+        this.path = path;
+        String[] names = path.split("\\.");
+        this.steps = new Step[names.length];
+        for (int i = 0; i < names.length; i++) {
+            steps[i] = new Step(names[i]);
+        }
+    }
+
+    /**
+     * 获取字段路径
+     *
+     * @return 字段路径
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 获取对象中字段路径对应的值
+     *
+     * @param target 取值对象
+     * @return 字段值，路径中某一级的值为null时返回null
+     * @throws IllegalArgumentException 某一级对象没有对应的字段
+     */
+    public Object get(Object target) {
+        Object result = null;
+        Object obj = target;
+        for (Step step : steps) {
+            result = step.get(obj);
+            if (result == null) {
+                return null;
+            }
+            obj = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    /**
+     * 路径中的一级字段
+     */
+    private static final class Step {
+
+        /**
+         * 字段名
+         */
+        private final String name;
+
+        /**
+         * 最近一次访问的对象类型及其字段访问器，对象为基本类型包装类或字符串时访问器为null
+         */
+        private volatile Binding binding;
+
+        Step(String name) {
+            this.name = name;
+        }
+
+        /**
+         * 获取对象中该级字段的值
+         *
+         * @param obj 对象
+         * @return 字段值
+         */
+        Object get(Object obj) {
+            Class<?> type = obj.getClass();
+            Binding current = binding;
+            if (current == null || current.type != type) {
+                // 类型检查的结果也随类型缓存，包装类和字符串的访问器为null
+                FieldAccessor accessor = null;
+                if (!ObjectUtil.isWrapperOrPrimitive(obj)) {
+                    Field field = ReflectUtil.getField(type, name);
+                    if (field == null) {
+                        throw new IllegalArgumentException(type.getName() + "没有" + name + "字段.");
+                    }
+                    accessor = FieldAccessor.of(field);
+                }
+                current = new Binding(type, accessor);
+                binding = current;
+            }
+            return current.accessor == null ? obj : current.accessor.get(obj);
+        }
+    }
+
+    /**
+     * 对象类型与字段访问器
+     */
+    private static final class Binding {
+
+        private final Class<?> type;
+
+        private final FieldAccessor accessor;
+
+        Binding(Class<?> type, FieldAccessor accessor) {
+            this.type = type;
+            this.accessor = accessor;
+        }
+    }
+}
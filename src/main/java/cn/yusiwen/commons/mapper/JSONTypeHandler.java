@@ -0,0 +1,86 @@
+package cn.yusiwen.commons.mapper;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedTypes;
+
+import cn.yusiwen.commons.mapper.annotation.JSONColumn;
+
+/**
+ * {@link JSONValue} 的 TypeHandler，以字节读写 JSON 列。
+ * <p>
+ * 读取时使用 {@link ResultSet#getBytes(int)}：PostgreSQL/openGauss 驱动对非bytea列直接返回收到的原始字节，不再解码为 String，
+ * 字节由 {@link JSONValue} 持有，到字段被读取时才解码或解析。以二进制格式传输的jsonb值带有1字节的版本号，读取时去掉。
+ * <p>
+ * 写入时使用 {@link PreparedStatement#setBytes(int, byte[])}，驱动以二进制格式发送bytea参数，不经过 String。标注 {@link JSONColumn} 的
+ * JSONValue 字段生成的参数为 {@code convert_from(#{field}, 'UTF8')::JSONB}（参见 {@link BaseMapper.TableInfo#bindParameter}），
+ * 由数据库将字节转换为jsonb。
+ * <p>
+ * {@link MapperSqlCompiler#addMapper} 会在配置中没有 JSONValue 的 TypeHandler 时自动注册此类，不使用 {@link MapperSqlCompiler}
+ * 时需手动注册。
+ *
+ * <p>
+ * 使用示例：
+ *
+ * <pre>
+ * configuration.getTypeHandlerRegistry().register(JSONValue.class, new JSONTypeHandler());
+ * </pre>
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+@MappedTypes(JSONValue.class)
+public class JSONTypeHandler extends BaseTypeHandler<JSONValue> {
+
+    /**
+     * jsonb二进制格式的版本号
+     */
+    private static final byte JSONB_VERSION = 1;
+
+    /**
+     * 创建一个新的JSONTypeHandler实例。
+     */
+    public JSONTypeHandler() {
+        // this constructor is empty
+    }
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, JSONValue parameter, JdbcType jdbcType)
+        throws SQLException {
+        ps.setBytes(i, parameter.bytes());
+    }
+
+    @Override
+    public JSONValue getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return toValue(rs.getBytes(columnName));
+    }
+
+    @Override
+    public JSONValue getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return toValue(rs.getBytes(columnIndex));
+    }
+
+    @Override
+    public JSONValue getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return toValue(cs.getBytes(columnIndex));
+    }
+
+    /**
+     * 将驱动返回的字节转换为JSONValue，JSON文本不会以0x01开头，以0x01开头时为jsonb二进制格式，去掉版本号
+     *
+     * @param bytes 驱动返回的字节
+     * @return JSONValue，bytes为null时返回null
+     */
+    private static JSONValue toValue(byte[] bytes) {
+        if (bytes != null && bytes.length > 0 && bytes[0] == JSONB_VERSION) {
+            return JSONValue.of(Arrays.copyOfRange(bytes, 1, bytes.length));
+        }
+        return JSONValue.of(bytes);
+    }
+}
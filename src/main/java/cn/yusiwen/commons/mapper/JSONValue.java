@@ -0,0 +1,167 @@
+package cn.yusiwen.commons.mapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Function;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import cn.yusiwen.commons.mapper.annotation.JSONColumn;
+
+/**
+ * JSON 列的值，保存驱动返回的原始 UTF-8 字节，在第一次读取时才解码或解析。
+ * <p>
+ * 实体中类型为 JSONValue 的字段由 {@link JSONTypeHandler} 读写：查询时直接保存 {@link java.sql.ResultSet#getBytes(int)} 返回的字节，
+ * 不创建中间的 String，未被读取的 JSON 列不会被解析；写入时字节直接作为参数绑定。{@link #toString()} 和 {@link #parse(Function)}
+ * 的结果在首次调用时缓存。大多数 JSON 库（如 Jackson 的 {@code ObjectMapper#readValue(byte[], Class)}）可以直接从字节解析，
+ * 不需要先转换为 String。
+ * <p>
+ * JSONValue 不可变，按字节内容比较是否相等，{@link ChangeTracker} 据此判断字段是否修改。
+ *
+ * <p>
+ * 使用示例：
+ *
+ * <pre>
+ * {@code @JSONColumn}
+ * private JSONValue profile;
+ *
+ * Profile profile = user.getProfile().parse(Profile::fromJson);
+ * user.setProfile(JSONValue.of(profile.toJsonBytes()));
+ * </pre>
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ * @see JSONColumn
+ */
+public final class JSONValue {
+
+    /**
+     * JSON文本的UTF-8字节
+     */
+    private final byte[] bytes;
+
+    /**
+     * 解码后的JSON文本，首次调用 {@link #toString()} 时设置
+     */
+    private volatile String text;
+
+    /**
+     * 最近一次解析的结果，首次调用 {@link #parse(Function)} 时设置
+     */
+    private volatile Parsed parsed;
+
+    private JSONValue(byte[] bytes, String text) {
+        this.bytes = bytes;
+        this.text = text;
+    }
+
+    /**
+     * 由JSON文本的UTF-8字节创建，不复制数组，调用方之后不应再修改数组
+     *
+     * @param bytes JSON文本的UTF-8字节
+     * @return JSONValue，bytes为null时返回null
+     */
+    @SuppressFBWarnings("EI_EXPOSE_REP2")
+    public static JSONValue of(byte[] bytes) {
+        return bytes == null ? null : new JSONValue(bytes, null);
+    }
+
+    /**
+     * 由JSON文本创建
+     *
+     * @param text JSON文本
+     * @return JSONValue，text为null时返回null
+     */
+    public static JSONValue of(String text) {
+        return text == null ? null : new JSONValue(text.getBytes(StandardCharsets.UTF_8), text);
+    }
+
+    /**
+     * 获取JSON文本的UTF-8字节
+     *
+     * @return 字节数组的副本
+     */
+    public byte[] getBytes() {
+        return bytes.clone();
+    }
+
+    /**
+     * 获取JSON文本的UTF-8字节，不复制数组，只用于写入数据库
+     *
+     * @return 字节数组
+     */
+    byte[] bytes() {
+        return bytes;
+    }
+
+    /**
+     * 获取JSON文本的字节长度
+     *
+     * @return 字节长度
+     */
+    public int length() {
+        return bytes.length;
+    }
+
+    /**
+     * 解析JSON，结果按解析函数缓存，使用同一个解析函数再次调用时直接返回上次的结果。
+     * <p>
+     * 解析函数接收的是内部的字节数组，不应修改。解析结果是可变对象时，修改结果不会改变此JSONValue，需要重新创建JSONValue写回字段。
+     *
+     * @param parser 解析函数
+     * @param <T> 解析结果类型
+     * @return 解析结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T parse(Function<? super byte[], ? extends T> parser) {
+        Parsed current = parsed;
+        if (current == null || current.parser != parser) {
+            current = new Parsed(parser, parser.apply(bytes));
+            parsed = current;
+        }
+        return (T)current.value;
+    }
+
+    /**
+     * 获取JSON文本，首次调用时解码并缓存
+     *
+     * @return JSON文本
+     */
+    @Override
+    public String toString() {
+        String value = text;
+        if (value == null) {
+            value = new String(bytes, StandardCharsets.UTF_8);
+            text = value;
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof JSONValue && Arrays.equals(bytes, ((JSONValue)o).bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bytes);
+    }
+
+    /**
+     * 解析函数及其结果
+     */
+    private static final class Parsed {
+
+        private final Function<?, ?> parser;
+
+        private final Object value;
+
+        Parsed(Function<?, ?> parser, Object value) {
+            this.parser = parser;
+            this.value = value;
+        }
+    }
+}
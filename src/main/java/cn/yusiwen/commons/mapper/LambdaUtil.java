@@ -0,0 +1,97 @@
+package cn.yusiwen.commons.mapper;
+
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Method;
+
+import org.apache.ibatis.reflection.property.PropertyNamer;
+
+/**
+ * 方法引用工具类，将 {@link Property} 方法引用解析为实体的属性名。
+ * <p>
+ * 解析时调用lambda的 {@code writeReplace} 方法获取 {@link SerializedLambda}，再由其实现方法名（getter）推导属性名，
+ * 开销较大。每个方法引用的调用点对应一个lambda类，解析结果按lambda类缓存在 {@link ClassValue} 中，每个调用点只解析一次，
+ * 缓存不持有lambda类的强引用，热部署卸载类时随之回收。
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+public final class LambdaUtil {
+
+    /**
+     * lambda类 -> 保存属性名的单元素数组。解析需要lambda实例，{@link ClassValue#computeValue} 只能得到类，
+     * 因此先创建空数组，首次调用 {@link #propertyName(Property)} 时填入；并发时可能重复解析，结果相同
+     */
+    private static final ClassValue<String[]> PROPERTY_NAMES = new ClassValue<String[]>() {
+        @Override
+        protected String[] computeValue(Class<?> type) {
+            return new String[1];
+        }
+    };
+
+    private LambdaUtil() {}
+
+    /**
+     * 获取方法引用对应的属性名，如 {@code User::getName} 对应 name，{@code User::isDeleted} 对应 deleted
+     *
+     * @param property 属性的getter方法引用
+     * @return 属性名
+     * @throws IllegalArgumentException 不是getter方法引用
+     */
+    public static String propertyName(Property<?, ?> property) {
+        String[] holder = PROPERTY_NAMES.get(property.getClass());
+        String name = holder[0];
+        if (name == null) {
+            name = resolve(property);
+            holder[0] = name;
+        }
+        return name;
+    }
+
+    /**
+     * 获取多个方法引用对应的属性名
+     *
+     * @param properties 属性的getter方法引用
+     * @return 属性名数组
+     * @throws IllegalArgumentException 不是getter方法引用
+     */
+    public static String[] propertyNames(Property<?, ?>... properties) {
+        String[] names = new String[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            names[i] = propertyName(properties[i]);
+        }
+        return names;
+    }
+
+    /**
+     * 获取方法引用的序列化形式
+     *
+     * @param property 方法引用
+     * @return 序列化形式
+     */
+    private static SerializedLambda serializedLambda(Property<?, ?> property) {
+        Method writeReplace;
+        try {
+            writeReplace = property.getClass().getDeclaredMethod("writeReplace");
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(property.getClass().getName() + "不是lambda表达式或方法引用.", e);
+        }
+        return (SerializedLambda)ReflectUtil.invokeMethod(writeReplace, property);
+    }
+
+    /**
+     * 解析方法引用对应的属性名
+     *
+     * @param property 方法引用
+     * @return 属性名
+     */
+    private static String resolve(Property<?, ?> property) {
+        SerializedLambda lambda = serializedLambda(property);
+        String method = lambda.getImplMethodName();
+        if (!PropertyNamer.isGetter(method)) {
+            throw new IllegalArgumentException(lambda.getImplClass().replace('/', '.') + "." + method
+                + "不是getter方法，请使用形如User::getName的方法引用.");
+        }
+        // 与MyBatis相同的属性名推导规则
+        return PropertyNamer.methodToProperty(method);
+    }
+}
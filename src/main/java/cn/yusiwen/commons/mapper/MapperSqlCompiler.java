@@ -0,0 +1,375 @@
+package cn.yusiwen.commons.mapper;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.ibatis.annotations.DeleteProvider;
+import org.apache.ibatis.annotations.InsertProvider;
+import org.apache.ibatis.annotations.SelectProvider;
+import org.apache.ibatis.annotations.UpdateProvider;
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.keygen.KeyGenerator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.TypeParameterResolver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.TypeHandler;
+
+import cn.yusiwen.commons.mapper.BaseMapper.InsertReturningSqlProvider;
+import cn.yusiwen.commons.mapper.BaseMapper.StaticSqlProviderSupport;
+import cn.yusiwen.commons.mapper.BaseMapper.TableInfo;
+
+/**
+ * Mapper SQL 预编译工具。
+ * <p>
+ * MyBatis 对 {@literal @InsertProvider}、{@literal @SelectProvider} 等注解生成的语句，每次执行时都会调用 Provider 方法拼接 SQL， 再解析其中的
+ * {@code #{}} 占位符。对于使用 {@link StaticSqlProviderSupport} 的方法，SQL 与调用参数无关， 此工具在 mapper 注册到 {@link Configuration}
+ * 时将其一次性生成并解析为静态的 {@link SqlSource}，执行时不再拼接和解析 SQL。
+ * <p>
+ * 返回 {@link Cursor} 的语句同时按方言设置fetchSize（参见 {@link Dialect#cursorFetchSize()}），使游标查询在各数据库上都流式读取。
+ * 数据库可以在插入时返回整行时（参见 {@link Dialect#supportsReturning()}、{@link Dialect#supportsGeneratedKeyColumns()}），
+ * {@link BaseMapper#insertValuesReturning(List, Dialect)} 的keyProperty设置为实体的所有字段，插入后回填整行，
+ * 回填后标记当前线程（参见 {@link #rowsReturned()}），{@link BaseMapper#insertBatchReturning(List, Dialect)} 据此决定是否再查询一次。
+ * <p>
+ * 返回实体的 {@link BaseMapper} 查询语句使用按 {@link TableInfo} 生成的显式 {@link ResultMap}（参见 {@link #ENTITY_RESULT_MAP}），
+ * 每列的属性和 TypeHandler 在注册时确定，不再依赖自动映射在每个结果集上查找列与属性的对应关系；其中的静态SQL不再为列生成别名。
+ * 参数相关的SQL仍带别名（同一实体可能同时被未预编译的mapper使用），ResultMap同时映射了别名。
+ * {@link JSONValue} 字段使用的 {@link JSONTypeHandler} 在预编译时注册到配置中。
+ * <p>
+ * 预编译的语句通过 {@link MappedStatement.Builder} 复制原语句生成，在配置中替换原语句，之后
+ * {@link Configuration#getMappedStatement(String)} 返回的就是预编译的语句，执行时不再经过 Provider。MyBatis 不允许重复注册同一语句id，
+ * 替换时先从 {@link Configuration#getMappedStatementNames()} 中移除原语句，因此应在启动时、开始执行语句之前注册。
+ * <p>
+ * SQL 按注册时配置的 databaseId 对应的方言生成（参见 {@link Dialect#of(String)}）。MyBatis 在解析 mapper 时同样以当时的
+ * databaseId 创建 Provider 的 {@code ProviderContext}，因此预编译的SQL与未预编译时 Provider 生成的SQL一致；
+ * databaseId 需要在注册 mapper 之前设置。
+ *
+ * <p>
+ * 使用示例：
+ *
+ * <pre>
+ * Configuration configuration = new Configuration(environment);
+ * MapperSqlCompiler.addMapper(configuration, UserMapper.class);
+ * </pre>
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+public final class MapperSqlCompiler {
+
+    /**
+     * 实体ResultMap在mapper命名空间中的id
+     */
+    public static final String ENTITY_RESULT_MAP = "entityResultMap";
+
+    private MapperSqlCompiler() {}
+
+    /**
+     * 注册mapper并预编译其中的静态SQL
+     *
+     * @param configuration MyBatis配置
+     * @param mapperType mapper类型
+     * @return 预编译的语句数量
+     */
+    public static int addMapper(Configuration configuration, Class<?> mapperType) {
+        if (!configuration.hasMapper(mapperType)) {
+            configuration.addMapper(mapperType);
+        }
+        return compile(configuration, mapperType);
+    }
+
+    /**
+     * 预编译已注册mapper中的静态SQL，为对应语句生成使用静态SqlSource的副本，同时设置游标查询的fetchSize、插入时回填的列和实体查询的ResultMap，
+     * 并用副本替换配置中的原语句。配置中没有 {@link JSONValue} 的TypeHandler时注册 {@link JSONTypeHandler}。
+     * 配置中有 {@link EntityRowMappingInterceptor} 时同时检查其注册顺序。
+     *
+     * @param configuration MyBatis配置
+     * @param mapperType 已注册的mapper类型
+     * @return 预编译的语句数量
+     * @throws IllegalStateException EntityRowMappingInterceptor在其他ResultSetHandler插件之后注册
+     */
+    public static int compile(Configuration configuration, Class<?> mapperType) {
+        EntityRowMappingInterceptor.checkOrder(configuration);
+        if (!configuration.getTypeHandlerRegistry().hasTypeHandler(JSONValue.class)) {
+            configuration.getTypeHandlerRegistry().register(JSONValue.class, new JSONTypeHandler());
+        }
+        TableInfo table = BaseMapper.BaseSqlProviderSupport.tableInfo(mapperType);
+        Dialect dialect = Dialect.of(configuration.getDatabaseId());
+        int count = 0;
+        for (Method method : mapperType.getMethods()) {
+            if (method.isDefault() || method.isBridge()) {
+                continue;
+            }
+            String statementId = mapperType.getName() + "." + method.getName();
+            if (!configuration.hasStatement(statementId, false)) {
+                continue;
+            }
+            MappedStatement statement = configuration.getMappedStatement(statementId, false);
+            Class<?> providerType = providerType(method);
+            boolean entityResult = providerType != null && providerType.getEnclosingClass() == BaseMapper.class
+                && statement.getSqlCommandType() == SqlCommandType.SELECT && statement.getResultMaps().size() == 1
+                && statement.getResultMaps().get(0).getType() == table.getEntityClass();
+            SqlSource sqlSource = statement.getSqlSource();
+            boolean changed = false;
+            if (providerType != null && StaticSqlProviderSupport.class.isAssignableFrom(providerType)) {
+                StaticSqlProviderSupport provider = newProvider(providerType);
+                sqlSource = new SqlSourceBuilder(configuration).parse(
+                    provider.sql(entityResult ? table.unaliased() : table, dialect), parameterType(method, mapperType),
+                    new HashMap<>());
+                changed = true;
+                count++;
+            }
+            MappedStatement.Builder builder = copy(statement, sqlSource);
+            if (Cursor.class.isAssignableFrom(method.getReturnType())) {
+                builder.fetchSize(dialect.cursorFetchSize());
+                changed = true;
+            }
+            if (entityResult) {
+                builder.resultMaps(Collections.singletonList(resultMap(configuration, mapperType, table)));
+                changed = true;
+            }
+            if (providerType == InsertReturningSqlProvider.class
+                && (dialect.supportsReturning() || dialect.supportsGeneratedKeyColumns())) {
+                // 生成列按位置依次赋给keyProperty，与RETURNING子句的列顺序一致
+                builder.keyProperty(Stream.of(table.returningFields()).map(Field::getName)
+                    .collect(Collectors.joining(","))).keyColumn(String.join(",", table.returningColumns()))
+                    .keyGenerator(statement.getKeyGenerator() instanceof RowReturningKeyGenerator
+                        ? statement.getKeyGenerator() : new RowReturningKeyGenerator(statement.getKeyGenerator()));
+                changed = true;
+            }
+            if (changed) {
+                replace(configuration, statement, builder.build());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 用预编译的语句替换配置中的原语句。先移除原语句的id，短名称（方法名）只对应原语句时一并移除，再注册新语句，
+     * 短名称被多个mapper使用时MyBatis仍将其标记为有歧义
+     *
+     * @param configuration MyBatis配置
+     * @param statement 原语句
+     * @param compiled 预编译的语句，id与原语句相同
+     */
+    private static synchronized void replace(Configuration configuration, MappedStatement statement,
+        MappedStatement compiled) {
+        Collection<String> names = configuration.getMappedStatementNames();
+        String shortName = statement.getId().substring(statement.getId().lastIndexOf('.') + 1);
+        boolean ownsShortName;
+        try {
+            ownsShortName = configuration.hasStatement(shortName, false)
+                && configuration.getMappedStatement(shortName, false) == statement;
+        } catch (IllegalArgumentException e) {
+            // 短名称有歧义
+            ownsShortName = false;
+        }
+        names.remove(statement.getId());
+        if (ownsShortName) {
+            names.remove(shortName);
+        }
+        configuration.addMappedStatement(compiled);
+    }
+
+    /**
+     * 创建复制原语句属性的Builder，之后可以修改其中的属性
+     *
+     * @param statement 原语句
+     * @param sqlSource 新语句使用的SqlSource
+     * @return Builder
+     */
+    private static MappedStatement.Builder copy(MappedStatement statement, SqlSource sqlSource) {
+        return new MappedStatement.Builder(statement.getConfiguration(), statement.getId(), sqlSource,
+            statement.getSqlCommandType()).resource(statement.getResource()).fetchSize(statement.getFetchSize())
+            .timeout(statement.getTimeout()).statementType(statement.getStatementType())
+            .resultSetType(statement.getResultSetType()).parameterMap(statement.getParameterMap())
+            .resultMaps(statement.getResultMaps()).cache(statement.getCache())
+            .flushCacheRequired(statement.isFlushCacheRequired()).useCache(statement.isUseCache())
+            .resultOrdered(statement.isResultOrdered()).keyGenerator(statement.getKeyGenerator())
+            .keyProperty(join(statement.getKeyProperties())).keyColumn(join(statement.getKeyColumns()))
+            .databaseId(statement.getDatabaseId()).lang(statement.getLang())
+            .resultSets(join(statement.getResultSets())).dirtySelect(statement.isDirtySelect());
+    }
+
+    /**
+     * 将数组用逗号连接，与MyBatis解析keyProperty等属性的格式一致
+     *
+     * @param values 数组，可以为null
+     * @return 逗号分隔的字符串，values为null时返回null
+     */
+    private static String join(String[] values) {
+        return values == null ? null : String.join(",", values);
+    }
+
+    /**
+     * 获取mapper的实体ResultMap，不存在时按表信息生成并注册到配置中。
+     * <p>
+     * 每个字段按列名映射，带下划线的列同时按别名（字段名）映射，结果集中不存在的列不会被映射。
+     * 所有字段都有对应的TypeHandler时关闭自动映射，否则没有TypeHandler的字段仍由自动映射处理。
+     *
+     * @param configuration MyBatis配置
+     * @param mapperType mapper类型
+     * @param table 表信息
+     * @return ResultMap
+     */
+    static ResultMap resultMap(Configuration configuration, Class<?> mapperType, TableInfo table) {
+        String id = mapperType.getName() + "." + ENTITY_RESULT_MAP;
+        if (configuration.hasResultMap(id)) {
+            return configuration.getResultMap(id);
+        }
+        List<ResultMapping> mappings = new ArrayList<>();
+        boolean complete = true;
+        for (Field field : table.getFields()) {
+            TypeHandler<?> typeHandler = configuration.getTypeHandlerRegistry().getTypeHandler(field.getType());
+            if (typeHandler == null) {
+                complete = false;
+                continue;
+            }
+            String column = TableInfo.columnName(field);
+            List<ResultFlag> flags = column.equals(table.getPrimaryKeyColumn())
+                ? Collections.singletonList(ResultFlag.ID) : Collections.emptyList();
+            mappings.add(new ResultMapping.Builder(configuration, field.getName(), column, typeHandler).flags(flags)
+                .javaType(field.getType()).build());
+            if (!column.equals(field.getName())) {
+                mappings.add(new ResultMapping.Builder(configuration, field.getName(), field.getName(), typeHandler)
+                    .flags(flags).javaType(field.getType()).build());
+            }
+        }
+        ResultMap resultMap =
+            new ResultMap.Builder(configuration, id, table.getEntityClass(), mappings, complete ? false : null).build();
+        configuration.addResultMap(resultMap);
+        return resultMap;
+    }
+
+    /**
+     * 获取方法上Provider注解指定的Provider类型，只处理Provider方法为 {@code sql} 的注解
+     *
+     * @param method mapper方法
+     * @return Provider类型，方法上没有符合条件的Provider注解时返回null
+     */
+    static Class<?> providerType(Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            Class<?> type;
+            Class<?> value;
+            String providerMethod;
+            if (annotation instanceof InsertProvider) {
+                type = ((InsertProvider)annotation).type();
+                value = ((InsertProvider)annotation).value();
+                providerMethod = ((InsertProvider)annotation).method();
+            } else if (annotation instanceof SelectProvider) {
+                type = ((SelectProvider)annotation).type();
+                value = ((SelectProvider)annotation).value();
+                providerMethod = ((SelectProvider)annotation).method();
+            } else if (annotation instanceof UpdateProvider) {
+                type = ((UpdateProvider)annotation).type();
+                value = ((UpdateProvider)annotation).value();
+                providerMethod = ((UpdateProvider)annotation).method();
+            } else if (annotation instanceof DeleteProvider) {
+                type = ((DeleteProvider)annotation).type();
+                value = ((DeleteProvider)annotation).value();
+                providerMethod = ((DeleteProvider)annotation).method();
+            } else {
+                continue;
+            }
+            return "sql".equals(providerMethod) ? type != void.class ? type : value : null;
+        }
+        return null;
+    }
+
+    /**
+     * 获取mapper方法的参数类型，规则与MyBatis的MapperAnnotationBuilder一致，泛型参数解析为mapper上声明的实体类型
+     *
+     * @param method mapper方法
+     * @param mapperType mapper类型
+     * @return 参数类型
+     */
+    static Class<?> parameterType(Method method, Class<?> mapperType) {
+        List<Type> types = Arrays.stream(TypeParameterResolver.resolveParamTypes(method, mapperType))
+            .filter(type -> !(type instanceof Class) || !RowBounds.class.isAssignableFrom((Class<?>)type)
+                && !ResultHandler.class.isAssignableFrom((Class<?>)type))
+            .collect(Collectors.toList());
+        if (types.size() != 1) {
+            return ParamMap.class;
+        }
+        Type type = types.get(0);
+        if (type instanceof ParameterizedType) {
+            type = ((ParameterizedType)type).getRawType();
+        }
+        return type instanceof Class ? (Class<?>)type : Object.class;
+    }
+
+    /**
+     * 创建Provider实例
+     *
+     * @param providerType Provider类型
+     * @return Provider实例
+     */
+    static StaticSqlProviderSupport newProvider(Class<?> providerType) {
+        try {
+            return (StaticSqlProviderSupport)providerType.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("创建" + providerType.getName() + "实例错误!", e);
+        }
+    }
+
+    /**
+     * 获取并清除当前线程的整行回填标记。当前线程执行过keyProperty为实体所有字段的
+     * {@link BaseMapper#insertValuesReturning(List, Dialect)} 语句后返回true
+     *
+     * @return 上次调用后是否回填过整行
+     */
+    static boolean rowsReturned() {
+        boolean returned = Boolean.TRUE.equals(RowReturningKeyGenerator.RETURNED.get());
+        RowReturningKeyGenerator.RETURNED.remove();
+        return returned;
+    }
+
+    /**
+     * 回填整行的KeyGenerator，委托原KeyGenerator回填后标记当前线程
+     */
+    static final class RowReturningKeyGenerator implements KeyGenerator {
+
+        /**
+         * 当前线程是否回填过整行
+         */
+        static final ThreadLocal<Boolean> RETURNED = new ThreadLocal<>();
+
+        private final KeyGenerator delegate;
+
+        RowReturningKeyGenerator(KeyGenerator delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void processBefore(Executor executor, MappedStatement ms, Statement stmt, Object parameter) {
+            delegate.processBefore(executor, ms, stmt, parameter);
+        }
+
+        @Override
+        public void processAfter(Executor executor, MappedStatement ms, Statement stmt, Object parameter) {
+            delegate.processAfter(executor, ms, stmt, parameter);
+            RETURNED.set(Boolean.TRUE);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package cn.yusiwen.commons.mapper;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+
+import cn.yusiwen.commons.mapper.BaseMapper.StaticSqlProviderSupport;
+import cn.yusiwen.commons.mapper.BaseMapper.TableInfo;
+
+/**
+ * Mapper 预热工具。
+ * <p>
+ * mapper的表信息和SQL默认在第一次调用时才通过反射生成，应用刚启动时的请求因此较慢。此工具在启动时并行处理
+ * {@link Configuration} 中注册的所有 {@link BaseMapper}：对使用 {@link StaticSqlProviderSupport} 的方法，从配置中的
+ * {@link MappedStatement} 获取SQL（经过 {@link MapperSqlCompiler} 预编译的语句已替换为静态SQL），
+ * 未经预编译的语句由此生成表信息并缓存Provider生成的SQL，并返回每个mapper的耗时，可用于就绪检查。
+ * 只适用于部分数据库的语句（参见 {@link StaticSqlProviderSupport#supports(Dialect)}）和SQL与参数相关的语句不会被预热。
+ * <p>
+ * 预热只在应用内进行，不访问数据库：服务端的预编译语句缓存属于单个连接，驱动通常在同一连接上多次执行后才在服务端预编译
+ * （如PostgreSQL驱动的prepareThreshold），在某个连接上预编译一次对连接池中的其他连接没有作用。
+ *
+ * <p>
+ * 使用示例：
+ *
+ * <pre>
+ * Map&lt;Class&lt;?&gt;, Duration&gt; timings = MapperWarmUp.warmUp(sqlSessionFactory.getConfiguration());
+ * timings.forEach((mapper, time) -&gt; log.info("{} warmed up in {} ms", mapper.getSimpleName(), time.toMillis()));
+ * </pre>
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+public final class MapperWarmUp {
+
+    private MapperWarmUp() {}
+
+    /**
+     * 使用 {@link ForkJoinPool#commonPool()} 预热所有mapper
+     *
+     * @param configuration MyBatis配置，mapper必须已注册
+     * @return 每个mapper的预热耗时，按mapper的注册顺序排列
+     */
+    public static Map<Class<?>, Duration> warmUp(Configuration configuration) {
+        return warmUp(configuration, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 预热所有mapper
+     *
+     * @param configuration MyBatis配置，mapper必须已注册
+     * @param pool 执行预热的线程池，每个mapper一个任务
+     * @return 每个mapper的预热耗时，按mapper的注册顺序排列
+     */
+    public static Map<Class<?>, Duration> warmUp(Configuration configuration, ForkJoinPool pool) {
+        List<Class<?>> mapperTypes = new ArrayList<>();
+        for (Class<?> mapperType : configuration.getMapperRegistry().getMappers()) {
+            if (mapperType != BaseMapper.class && BaseMapper.class.isAssignableFrom(mapperType)) {
+                mapperTypes.add(mapperType);
+            }
+        }
+        List<ForkJoinTask<Duration>> tasks = new ArrayList<>(mapperTypes.size());
+        for (Class<?> mapperType : mapperTypes) {
+            tasks.add(pool.submit(() -> warmUp(configuration, mapperType)));
+        }
+        Map<Class<?>, Duration> timings = new LinkedHashMap<>(mapperTypes.size() * 2);
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                timings.put(mapperTypes.get(i), tasks.get(i).get());
+            } catch (ExecutionException e) {
+                tasks.forEach(task -> task.cancel(true));
+                throw new IllegalStateException("预热" + mapperTypes.get(i).getName() + "错误!", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("预热mapper被中断!", e);
+            }
+        }
+        return Collections.unmodifiableMap(timings);
+    }
+
+    /**
+     * 预热单个mapper
+     *
+     * @param configuration MyBatis配置
+     * @param mapperType mapper类型
+     * @return 耗时
+     */
+    private static Duration warmUp(Configuration configuration, Class<?> mapperType) {
+        long start = System.nanoTime();
+        // 生成表信息，没有静态SQL语句的mapper也会注册
+        TableInfo.forMapper(mapperType);
+        Dialect dialect = Dialect.of(configuration.getDatabaseId());
+        for (Method method : mapperType.getMethods()) {
+            if (method.isDefault() || method.isBridge()) {
+                continue;
+            }
+            Class<?> providerType = MapperSqlCompiler.providerType(method);
+            String statementId = mapperType.getName() + "." + method.getName();
+            if (providerType == null || !StaticSqlProviderSupport.class.isAssignableFrom(providerType)
+                || !configuration.hasStatement(statementId, false)
+                || !MapperSqlCompiler.newProvider(providerType).supports(dialect)) {
+                continue;
+            }
+            // SQL与参数无关，未预编译的语句在此调用Provider并解析SQL
+            configuration.getMappedStatement(statementId).getBoundSql(null);
+        }
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,340 @@
+package cn.yusiwen.commons.mapper;
+
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.apache.ibatis.session.SqlSession;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+
+import cn.yusiwen.commons.mapper.BaseMapper.TableInfo;
+
+/**
+ * MySQL 批量导入工具，使用 {@code LOAD DATA LOCAL INFILE} 将实体流式写入数据库。
+ * <p>
+ * 列和字段顺序取自 mapper 对应的 {@link TableInfo}，实体在驱动读取数据时才逐批序列化为制表符分隔的文本，
+ * 通过 Connector/J 的 {@link JdbcStatement#setLocalInfileInputStream(InputStream)} 发送给数据库，不生成临时文件，
+ * 内存占用与数据量无关。
+ * <p>
+ * 需要 MySQL Connector/J 驱动（com.mysql:mysql-connector-j），连接参数需开启 {@code allowLoadLocalInfile=true}，
+ * 服务端需开启 {@code local_infile}。
+ *
+ * <p>
+ * 文本格式使用 LOAD DATA 的默认格式：字段以制表符分隔，行以换行符结束，反斜杠为转义字符，null写为 {@code \N}。
+ * 字段值中的反斜杠、制表符、换行符、回车符和NUL字符会被转义。{@link JSONValue} 字段直接写入其UTF-8字节，不解码为字符串。
+ *
+ * <p>
+ * {@code LOAD DATA LOCAL} 总是按 {@code IGNORE} 处理数据错误：超长的值被截断、无法转换的值写为默认值、唯一键冲突的行被跳过，
+ * 数据库只产生警告而不报错。导入后如果语句有警告，抛出包含警告内容的 {@link SQLException}，此时已导入的行仍在当前事务中，
+ * 由调用方回滚。
+ *
+ * <p>
+ * 使用示例：
+ *
+ * <pre>
+ * long rows = MySQLLoadDataLoader.load(sqlSession, UserMapper.class, users.stream());
+ * sqlSession.commit();
+ * </pre>
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+public final class MySQLLoadDataLoader {
+
+    /**
+     * 日期时间格式，精确到微秒
+     */
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
+
+    /**
+     * null值
+     */
+    private static final byte[] NULL = {'\\', 'N'};
+
+    /**
+     * 每次序列化的数据量
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 异常信息中最多包含的警告数量
+     */
+    private static final int MAX_REPORTED_WARNINGS = 10;
+
+    private MySQLLoadDataLoader() {}
+
+    /**
+     * 导入实体（不包含主键列，主键由数据库生成）
+     *
+     * @param sqlSession SqlSession，使用其当前连接和事务
+     * @param mapperType 实体对应的mapper类型
+     * @param entities 实体
+     * @return 导入的行数
+     * @throws SQLException 导入失败
+     */
+    public static long load(SqlSession sqlSession, Class<?> mapperType, Iterable<? extends BaseEntity> entities)
+        throws SQLException {
+        return load(sqlSession.getConnection(), mapperType, entities.iterator(), false);
+    }
+
+    /**
+     * 导入实体（不包含主键列，主键由数据库生成）
+     *
+     * @param sqlSession SqlSession，使用其当前连接和事务
+     * @param mapperType 实体对应的mapper类型
+     * @param entities 实体，导入结束后关闭
+     * @return 导入的行数
+     * @throws SQLException 导入失败
+     */
+    public static long load(SqlSession sqlSession, Class<?> mapperType, Stream<? extends BaseEntity> entities)
+        throws SQLException {
+        try (Stream<? extends BaseEntity> stream = entities) {
+            return load(sqlSession.getConnection(), mapperType, stream.iterator(), false);
+        }
+    }
+
+    /**
+     * 导入实体
+     *
+     * @param connection 数据库连接，不会被关闭和提交
+     * @param mapperType 实体对应的mapper类型
+     * @param entities 实体
+     * @param withPrimaryKey 是否导入主键列
+     * @return 导入的行数
+     * @throws SQLException 导入失败，或导入时产生了警告
+     */
+    public static long load(Connection connection, Class<?> mapperType, Iterator<? extends BaseEntity> entities,
+        boolean withPrimaryKey) throws SQLException {
+        TableInfo table = BaseMapper.BaseSqlProviderSupport.tableInfo(mapperType);
+        String[] columns = withPrimaryKey ? table.getColumns() : table.getColumnsWithoutPrimaryKey();
+        Field[] fields = withPrimaryKey ? table.getFields() : table.getFieldsWithoutPrimaryKey();
+        String sql = "LOAD DATA LOCAL INFILE 'stream' INTO TABLE " + table.getTableName()
+            + " CHARACTER SET utf8mb4 (" + String.join(", ", columns) + ")";
+        try (Statement statement = connection.createStatement()) {
+            statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(new RowInputStream(fields, entities));
+            long rows = statement.executeLargeUpdate(sql);
+            checkWarnings(table, statement.getWarnings());
+            return rows;
+        }
+    }
+
+    /**
+     * 检查导入产生的警告，有警告时抛出异常，异常信息包含前 {@link #MAX_REPORTED_WARNINGS} 条警告
+     *
+     * @param table 表信息
+     * @param warning 语句的第一条警告
+     * @throws SQLException 有警告
+     */
+    private static void checkWarnings(TableInfo table, SQLWarning warning) throws SQLException {
+        if (warning == null) {
+            return;
+        }
+        StringBuilder message = new StringBuilder("LOAD DATA 导入").append(table.getTableName()).append("产生警告:");
+        int count = 0;
+        for (SQLWarning w = warning; w != null; w = w.getNextWarning()) {
+            if (count++ < MAX_REPORTED_WARNINGS) {
+                message.append("\n").append(w.getMessage());
+            }
+        }
+        if (count > MAX_REPORTED_WARNINGS) {
+            message.append("\n...共").append(count).append("条警告");
+        }
+        throw new SQLException(message.toString(), warning.getSQLState(), warning.getErrorCode(), warning);
+    }
+
+    /**
+     * 根据字段类型获取编码方法，{@link JSONValue} 直接使用其UTF-8字节，其他类型格式化为文本后按UTF-8编码
+     *
+     * @param field 字段
+     * @return 编码方法，输入为非null的字段值
+     */
+    private static Function<Object, byte[]> encoder(Field field) {
+        if (field.getType() == JSONValue.class) {
+            return value -> ((JSONValue)value).bytes();
+        }
+        return formatter(field).andThen(text -> text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 根据字段类型获取文本格式化方法
+     *
+     * @param field 字段
+     * @return 格式化方法，输入为非null的字段值
+     */
+    private static Function<Object, String> formatter(Field field) {
+        Class<?> type = field.getType();
+        if (type == String.class) {
+            return String.class::cast;
+        } else if (type.isEnum()) {
+            return value -> ((Enum<?>)value).name();
+        } else if (type == Boolean.class || type == boolean.class) {
+            return value -> (Boolean)value ? "1" : "0";
+        } else if (type == BigDecimal.class) {
+            return value -> ((BigDecimal)value).toPlainString();
+        } else if (type == LocalDateTime.class) {
+            return value -> DATE_TIME_FORMATTER.format((LocalDateTime)value);
+        } else if (type == OffsetDateTime.class) {
+            return value -> DATE_TIME_FORMATTER
+                .format(((OffsetDateTime)value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime());
+        } else if (type == ZonedDateTime.class) {
+            return value -> DATE_TIME_FORMATTER
+                .format(((ZonedDateTime)value).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime());
+        } else if (type == Instant.class) {
+            return value -> DATE_TIME_FORMATTER.format(LocalDateTime.ofInstant((Instant)value, ZoneId.systemDefault()));
+        } else if (type == java.sql.Date.class || type == java.sql.Time.class || type == Timestamp.class) {
+            return Object::toString;
+        } else if (Date.class.isAssignableFrom(type)) {
+            return value -> DATE_TIME_FORMATTER.format(new Timestamp(((Date)value).getTime()).toLocalDateTime());
+        } else if (type.isPrimitive() || Number.class.isAssignableFrom(type) || type == LocalDate.class
+            || type == LocalTime.class || type == UUID.class) {
+            return Object::toString;
+        }
+        throw new IllegalArgumentException(String.format("LOAD DATA 不支持%s对象的%s字段类型%s!",
+            field.getDeclaringClass().getName(), field.getName(), type.getName()));
+    }
+
+    /**
+     * 按需序列化实体的输入流，驱动读取时每次序列化约 {@link #BUFFER_SIZE} 字节的数据
+     */
+    private static final class RowInputStream extends InputStream {
+
+        private final FieldAccessor[] accessors;
+
+        private final Function<Object, byte[]>[] encoders;
+
+        private final Iterator<? extends BaseEntity> entities;
+
+        private byte[] buffer = new byte[BUFFER_SIZE];
+
+        private int count;
+
+        private int position;
+
+        @SuppressWarnings("unchecked")
+        RowInputStream(Field[] fields, Iterator<? extends BaseEntity> entities) {
+            this.accessors = FieldAccessor.of(fields);
+            this.encoders = new Function[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                encoders[i] = encoder(fields[i]);
+            }
+            this.entities = entities;
+        }
+
+        @Override
+        public int read() {
+            if (position >= count && !fill()) {
+                return -1;
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= count && !fill()) {
+                return -1;
+            }
+            int n = Math.min(len, count - position);
+            System.arraycopy(buffer, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        /**
+         * 序列化下一批实体
+         *
+         * @return 是否还有数据
+         */
+        private boolean fill() {
+            count = 0;
+            position = 0;
+            while (count < BUFFER_SIZE && entities.hasNext()) {
+                BaseEntity entity = entities.next();
+                for (int i = 0; i < accessors.length; i++) {
+                    if (i > 0) {
+                        put((byte)'\t');
+                    }
+                    Object value = accessors[i].get(entity);
+                    if (value == null) {
+                        put(NULL);
+                    } else {
+                        putEscaped(encoders[i].apply(value));
+                    }
+                }
+                put((byte)'\n');
+            }
+            return count > 0;
+        }
+
+        private void put(byte b) {
+            if (count == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[count++] = b;
+        }
+
+        private void put(byte[] bytes) {
+            for (byte b : bytes) {
+                put(b);
+            }
+        }
+
+        /**
+         * 写入转义后的字段值，UTF-8多字节字符的各字节均不小于0x80，不会被误转义
+         *
+         * @param bytes 字段值
+         */
+        private void putEscaped(byte[] bytes) {
+            for (byte b : bytes) {
+                switch (b) {
+                    case '\\':
+                        put((byte)'\\');
+                        put((byte)'\\');
+                        break;
+                    case '\t':
+                        put((byte)'\\');
+                        put((byte)'t');
+                        break;
+                    case '\n':
+                        put((byte)'\\');
+                        put((byte)'n');
+                        break;
+                    case '\r':
+                        put((byte)'\\');
+                        put((byte)'r');
+                        break;
+                    case 0:
+                        put((byte)'\\');
+                        put((byte)'0');
+                        break;
+                    default:
+                        put(b);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package cn.yusiwen.commons.mapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+/**
+ * 并行全表扫描工具。
+ * <p>
+ * 查询主键的最小值和最大值，将主键范围等分为多个分段，每个分段使用独立的 SqlSession 和线程以游标方式读取
+ * （参见 {@link BaseMapper#scanRange(long, long)}）。读取的记录按批放入每个分段的有界队列，
+ * 由该分段的处理线程交给调用方提供的consumer，队列满时读取线程阻塞等待，内存占用与表的大小无关。
+ *
+ * <p>
+ * consumer会被多个线程并发调用，必须是线程安全的；同一分段内的记录按主键升序交给consumer，分段之间没有顺序保证。
+ * 主键分布不均匀时各分段的记录数可能相差较大。
+ *
+ * <p>
+ * 使用示例：
+ *
+ * <pre>
+ * long rows = ParallelScanner.scan(sqlSessionFactory, UserMapper.class, 8, user -&gt; index(user));
+ * </pre>
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+public final class ParallelScanner {
+
+    /**
+     * 每个分段默认缓冲的最大记录数
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 4096;
+
+    /**
+     * 每批的最大记录数
+     */
+    private static final int BATCH_SIZE = 256;
+
+    private ParallelScanner() {}
+
+    /**
+     * 并行扫描全表
+     *
+     * @param sqlSessionFactory SqlSessionFactory，mapper必须已注册
+     * @param mapperType mapper类型
+     * @param parallelism 分段数，即同时使用的数据库连接数
+     * @param consumer 记录的处理方法，必须是线程安全的
+     * @param <S> 实体类型
+     * @return 扫描的记录数
+     */
+    public static <S extends BaseEntity> long scan(SqlSessionFactory sqlSessionFactory,
+        Class<? extends BaseMapper<S>> mapperType, int parallelism, Consumer<? super S> consumer) {
+        return scan(sqlSessionFactory, mapperType, parallelism, DEFAULT_BUFFER_SIZE, consumer);
+    }
+
+    /**
+     * 并行扫描全表
+     *
+     * @param sqlSessionFactory SqlSessionFactory，mapper必须已注册
+     * @param mapperType mapper类型
+     * @param parallelism 分段数，即同时使用的数据库连接数
+     * @param bufferSize 每个分段缓冲的最大记录数
+     * @param consumer 记录的处理方法，必须是线程安全的
+     * @param <S> 实体类型
+     * @return 扫描的记录数
+     */
+    public static <S extends BaseEntity> long scan(SqlSessionFactory sqlSessionFactory,
+        Class<? extends BaseMapper<S>> mapperType, int parallelism, int bufferSize, Consumer<? super S> consumer) {
+        if (parallelism <= 0 || bufferSize <= 0) {
+            throw new IllegalArgumentException("parallelism and bufferSize must be greater than 0");
+        }
+        Long min;
+        Long max;
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            BaseMapper<S> mapper = sqlSession.getMapper(mapperType);
+            min = mapper.queryMinId();
+            max = mapper.queryMaxId();
+        }
+        if (min == null || max == null) {
+            return 0;
+        }
+        List<long[]> ranges = split(min, max, parallelism);
+        int batchSize = Math.min(BATCH_SIZE, bufferSize);
+        int capacity = Math.max(1, bufferSize / batchSize);
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(ranges.size() * 2, runnable -> {
+            Thread thread = new Thread(runnable, "parallel-scanner-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletionService<Long> completion = new ExecutorCompletionService<>(executor);
+            for (long[] range : ranges) {
+                BlockingQueue<List<S>> queue = new ArrayBlockingQueue<>(capacity);
+                completion.submit(() -> {
+                    read(sqlSessionFactory, mapperType, range, batchSize, queue);
+                    return 0L;
+                });
+                completion.submit(() -> consume(queue, consumer));
+            }
+            long rows = 0;
+            for (int i = 0; i < ranges.size() * 2; i++) {
+                rows += completion.take().get();
+            }
+            return rows;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error)e.getCause();
+            }
+            throw new IllegalStateException("并行扫描" + mapperType.getName() + "错误!", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("并行扫描" + mapperType.getName() + "被中断!", e);
+        } finally {
+            // 出错时中断仍在阻塞等待队列的线程
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 将主键范围 {@code [min, max]} 等分为不超过parallelism个分段
+     *
+     * @param min 最小主键
+     * @param max 最大主键
+     * @param parallelism 分段数
+     * @return 各分段的主键范围，元素为 {@code [fromId, toId]}，均包含边界
+     */
+    static List<long[]> split(long min, long max, int parallelism) {
+        // 使用无符号除法，避免范围跨度超过Long.MAX_VALUE时溢出
+        long span = max - min;
+        long step = Long.divideUnsigned(span, parallelism) + 1;
+        List<long[]> ranges = new ArrayList<>(parallelism);
+        long from = min;
+        while (true) {
+            long to = Long.compareUnsigned(max - from, step - 1) <= 0 ? max : from + step - 1;
+            ranges.add(new long[] {from, to});
+            if (to == max) {
+                return Collections.unmodifiableList(ranges);
+            }
+            from = to + 1;
+        }
+    }
+
+    /**
+     * 读取一个分段的记录并按批放入队列，结束时放入空列表
+     *
+     * @param sqlSessionFactory SqlSessionFactory
+     * @param mapperType mapper类型
+     * @param range 主键范围
+     * @param batchSize 每批的最大记录数
+     * @param queue 队列
+     * @param <S> 实体类型
+     * @throws InterruptedException 被中断
+     * @throws IOException 关闭游标失败
+     */
+    private static <S extends BaseEntity> void read(SqlSessionFactory sqlSessionFactory,
+        Class<? extends BaseMapper<S>> mapperType, long[] range, int batchSize, BlockingQueue<List<S>> queue)
+        throws InterruptedException, IOException {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession();
+            Cursor<S> cursor = sqlSession.getMapper(mapperType).scanRange(range[0], range[1])) {
+            List<S> batch = new ArrayList<>(batchSize);
+            for (S entity : cursor) {
+                batch.add(entity);
+                if (batch.size() == batchSize) {
+                    queue.put(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                queue.put(batch);
+            }
+        }
+        queue.put(Collections.emptyList());
+    }
+
+    /**
+     * 从队列中取出记录交给consumer，直到取到空列表
+     *
+     * @param queue 队列
+     * @param consumer 记录的处理方法
+     * @param <S> 实体类型
+     * @return 处理的记录数
+     * @throws InterruptedException 被中断
+     */
+    private static <S extends BaseEntity> long consume(BlockingQueue<List<S>> queue, Consumer<? super S> consumer)
+        throws InterruptedException {
+        long rows = 0;
+        List<S> batch;
+        while (!(batch = queue.take()).isEmpty()) {
+            batch.forEach(consumer);
+            rows += batch.size();
+        }
+        return rows;
+    }
+}
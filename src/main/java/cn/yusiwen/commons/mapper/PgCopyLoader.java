@@ -0,0 +1,360 @@
+package cn.yusiwen.commons.mapper;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.session.SqlSession;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import cn.yusiwen.commons.mapper.BaseMapper.TableInfo;
+import cn.yusiwen.commons.mapper.annotation.JSONColumn;
+
+/**
+ * PostgreSQL 批量导入工具，使用 {@code COPY ... FROM STDIN (FORMAT BINARY)} 将实体流式写入数据库。
+ * <p>
+ * 列和字段顺序取自 mapper 对应的 {@link TableInfo}，实体逐个编码为 COPY 二进制格式写入固定大小的缓冲区，
+ * 缓冲区满时发送给数据库，内存占用与数据量无关。需要 PostgreSQL JDBC 驱动（org.postgresql:postgresql）。
+ *
+ * <p>
+ * 二进制格式要求字段类型与列类型严格对应：
+ * <ul>
+ * <li>String、Enum - text/varchar，标注 {@link JSONColumn} 的 String 字段、{@link JSONValue} - jsonb</li>
+ * <li>Long/long - bigint，Integer/int - integer，Short/short - smallint</li>
+ * <li>Double/double - double precision，Float/float - real，Boolean/boolean - boolean，BigDecimal - numeric</li>
+ * <li>LocalDateTime、java.util.Date、Timestamp - timestamp，OffsetDateTime、ZonedDateTime、Instant - timestamptz</li>
+ * <li>LocalDate、java.sql.Date - date，LocalTime - time，UUID - uuid，byte[] - bytea</li>
+ * </ul>
+ *
+ * <p>
+ * 使用示例：
+ *
+ * <pre>
+ * long rows = PgCopyLoader.copyIn(sqlSession, UserMapper.class, users.stream());
+ * sqlSession.commit();
+ * </pre>
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+public final class PgCopyLoader {
+
+    /**
+     * COPY 二进制格式文件头：签名、标志位、扩展区长度
+     */
+    private static final byte[] HEADER =
+        {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte)0xFF, '\r', '\n', 0, 0, 0, 0, 0, 0, 0, 0, 0};
+
+    /**
+     * PostgreSQL 时间纪元 2000-01-01 相对 1970-01-01 的秒数
+     */
+    private static final long PG_EPOCH_SECONDS = 946_684_800L;
+
+    /**
+     * PostgreSQL 时间纪元 2000-01-01 相对 1970-01-01 的天数
+     */
+    private static final long PG_EPOCH_DAYS = 10_957L;
+
+    /**
+     * 写入缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private PgCopyLoader() {}
+
+    /**
+     * 导入实体（不包含主键列，主键由数据库生成）
+     *
+     * @param sqlSession SqlSession，使用其当前连接和事务
+     * @param mapperType 实体对应的mapper类型
+     * @param entities 实体
+     * @return 导入的行数
+     * @throws SQLException 导入失败
+     */
+    public static long copyIn(SqlSession sqlSession, Class<?> mapperType, Iterable<? extends BaseEntity> entities)
+        throws SQLException {
+        return copyIn(sqlSession.getConnection(), mapperType, entities.iterator(), false);
+    }
+
+    /**
+     * 导入实体（不包含主键列，主键由数据库生成）
+     *
+     * @param sqlSession SqlSession，使用其当前连接和事务
+     * @param mapperType 实体对应的mapper类型
+     * @param entities 实体，导入结束后关闭
+     * @return 导入的行数
+     * @throws SQLException 导入失败
+     */
+    public static long copyIn(SqlSession sqlSession, Class<?> mapperType, Stream<? extends BaseEntity> entities)
+        throws SQLException {
+        try (Stream<? extends BaseEntity> stream = entities) {
+            return copyIn(sqlSession.getConnection(), mapperType, stream.iterator(), false);
+        }
+    }
+
+    /**
+     * 导入实体
+     *
+     * @param connection 数据库连接，不会被关闭和提交
+     * @param mapperType 实体对应的mapper类型
+     * @param entities 实体
+     * @param withPrimaryKey 是否导入主键列
+     * @return 导入的行数
+     * @throws SQLException 导入失败
+     */
+    public static long copyIn(Connection connection, Class<?> mapperType, Iterator<? extends BaseEntity> entities,
+        boolean withPrimaryKey) throws SQLException {
+        TableInfo table = BaseMapper.BaseSqlProviderSupport.tableInfo(mapperType);
+        String[] columns = withPrimaryKey ? table.getColumns() : table.getColumnsWithoutPrimaryKey();
+        Field[] fields = withPrimaryKey ? table.getFields() : table.getFieldsWithoutPrimaryKey();
+        Encoder[] encoders = new Encoder[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            encoders[i] = encoder(fields[i]);
+        }
+        FieldAccessor[] accessors = FieldAccessor.of(fields);
+        String sql =
+            "COPY " + table.getTableName() + " (" + String.join(", ", columns) + ") FROM STDIN (FORMAT BINARY)";
+        PGCopyOutputStream copy = new PGCopyOutputStream(connection.unwrap(PGConnection.class), sql, BUFFER_SIZE);
+        try {
+            DataOutputStream out = new DataOutputStream(copy);
+            out.write(HEADER);
+            while (entities.hasNext()) {
+                BaseEntity entity = entities.next();
+                out.writeShort(fields.length);
+                for (int i = 0; i < fields.length; i++) {
+                    Object value = accessors[i].get(entity);
+                    if (value == null) {
+                        out.writeInt(-1);
+                    } else {
+                        encoders[i].write(out, value);
+                    }
+                }
+            }
+            out.writeShort(-1);
+            out.flush();
+            return copy.endCopy();
+        } catch (IOException e) {
+            cancel(copy);
+            throw new SQLException("COPY " + table.getTableName() + " 写入数据错误!", e);
+        } catch (RuntimeException e) {
+            cancel(copy);
+            throw e;
+        }
+    }
+
+    /**
+     * 取消未完成的COPY，丢弃已发送的数据
+     *
+     * @param copy COPY输出流
+     * @throws SQLException 取消失败
+     */
+    private static void cancel(PGCopyOutputStream copy) throws SQLException {
+        if (copy.isActive()) {
+            copy.cancelCopy();
+        }
+    }
+
+    /**
+     * 根据字段类型获取二进制编码器
+     *
+     * @param field 字段
+     * @return 编码器
+     */
+    private static Encoder encoder(Field field) {
+        Class<?> type = field.getType();
+        if (type == JSONValue.class) {
+            return (out, value) -> {
+                byte[] bytes = ((JSONValue)value).bytes();
+                out.writeInt(bytes.length + 1);
+                out.writeByte(1);
+                out.write(bytes);
+            };
+        } else if (type == String.class) {
+            if (field.isAnnotationPresent(JSONColumn.class)) {
+                // jsonb 二进制格式：版本号1 + JSON文本
+                return (out, value) -> {
+                    byte[] bytes = ((String)value).getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length + 1);
+                    out.writeByte(1);
+                    out.write(bytes);
+                };
+            }
+            return (out, value) -> writeBytes(out, ((String)value).getBytes(StandardCharsets.UTF_8));
+        } else if (type.isEnum()) {
+            return (out, value) -> writeBytes(out, ((Enum<?>)value).name().getBytes(StandardCharsets.UTF_8));
+        } else if (type == Long.class || type == long.class) {
+            return (out, value) -> {
+                out.writeInt(8);
+                out.writeLong((Long)value);
+            };
+        } else if (type == Integer.class || type == int.class) {
+            return (out, value) -> {
+                out.writeInt(4);
+                out.writeInt((Integer)value);
+            };
+        } else if (type == Short.class || type == short.class) {
+            return (out, value) -> {
+                out.writeInt(2);
+                out.writeShort((Short)value);
+            };
+        } else if (type == Double.class || type == double.class) {
+            return (out, value) -> {
+                out.writeInt(8);
+                out.writeDouble((Double)value);
+            };
+        } else if (type == Float.class || type == float.class) {
+            return (out, value) -> {
+                out.writeInt(4);
+                out.writeFloat((Float)value);
+            };
+        } else if (type == Boolean.class || type == boolean.class) {
+            return (out, value) -> {
+                out.writeInt(1);
+                out.writeBoolean((Boolean)value);
+            };
+        } else if (type == BigDecimal.class) {
+            return (out, value) -> writeNumeric(out, (BigDecimal)value);
+        } else if (type == LocalDateTime.class) {
+            return (out, value) -> writeTimestamp(out, ((LocalDateTime)value).toEpochSecond(ZoneOffset.UTC),
+                ((LocalDateTime)value).getNano());
+        } else if (type == java.sql.Date.class || type == LocalDate.class) {
+            return (out, value) -> {
+                LocalDate date =
+                    value instanceof java.sql.Date ? ((java.sql.Date)value).toLocalDate() : (LocalDate)value;
+                out.writeInt(4);
+                out.writeInt((int)(date.toEpochDay() - PG_EPOCH_DAYS));
+            };
+        } else if (Date.class.isAssignableFrom(type)) {
+            return (out, value) -> {
+                LocalDateTime time = value instanceof Timestamp ? ((Timestamp)value).toLocalDateTime()
+                    : new Timestamp(((Date)value).getTime()).toLocalDateTime();
+                writeTimestamp(out, time.toEpochSecond(ZoneOffset.UTC), time.getNano());
+            };
+        } else if (type == OffsetDateTime.class) {
+            return (out, value) -> writeTimestamp(out, ((OffsetDateTime)value).toEpochSecond(),
+                ((OffsetDateTime)value).getNano());
+        } else if (type == ZonedDateTime.class) {
+            return (out, value) -> writeTimestamp(out, ((ZonedDateTime)value).toEpochSecond(),
+                ((ZonedDateTime)value).getNano());
+        } else if (type == Instant.class) {
+            return (out, value) -> writeTimestamp(out, ((Instant)value).getEpochSecond(), ((Instant)value).getNano());
+        } else if (type == LocalTime.class) {
+            return (out, value) -> {
+                out.writeInt(8);
+                out.writeLong(((LocalTime)value).toNanoOfDay() / 1000);
+            };
+        } else if (type == UUID.class) {
+            return (out, value) -> {
+                out.writeInt(16);
+                out.writeLong(((UUID)value).getMostSignificantBits());
+                out.writeLong(((UUID)value).getLeastSignificantBits());
+            };
+        } else if (type == byte[].class) {
+            return (out, value) -> writeBytes(out, (byte[])value);
+        }
+        throw new IllegalArgumentException(String.format("COPY 不支持%s对象的%s字段类型%s!",
+            field.getDeclaringClass().getName(), field.getName(), type.getName()));
+    }
+
+    /**
+     * 写入带长度的字节数组
+     *
+     * @param out 输出流
+     * @param bytes 字节数组
+     * @throws IOException 写入失败
+     */
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * 写入 timestamp/timestamptz，格式为相对 2000-01-01 的微秒数
+     *
+     * @param out 输出流
+     * @param epochSecond 相对 1970-01-01 的秒数
+     * @param nano 纳秒部分
+     * @throws IOException 写入失败
+     */
+    private static void writeTimestamp(DataOutputStream out, long epochSecond, int nano) throws IOException {
+        out.writeInt(8);
+        out.writeLong((epochSecond - PG_EPOCH_SECONDS) * 1_000_000L + nano / 1000);
+    }
+
+    /**
+     * 写入 numeric，格式为：位数、权重、符号、小数位数，以及以10000为基数的各位数字
+     *
+     * @param out 输出流
+     * @param value 数值
+     * @throws IOException 写入失败
+     */
+    private static void writeNumeric(DataOutputStream out, BigDecimal value) throws IOException {
+        BigDecimal decimal = value.scale() < 0 ? value.setScale(0) : value;
+        String plain = decimal.abs().toPlainString();
+        int dot = plain.indexOf('.');
+        String integer = dot < 0 ? plain : plain.substring(0, dot);
+        String fraction = dot < 0 ? "" : plain.substring(dot + 1);
+        integer = StringUtils.repeat('0', (4 - integer.length() % 4) % 4) + integer;
+        fraction = fraction + StringUtils.repeat('0', (4 - fraction.length() % 4) % 4);
+        String digits = integer + fraction;
+        short[] groups = new short[digits.length() / 4];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = Short.parseShort(digits.substring(i * 4, i * 4 + 4));
+        }
+        int weight = integer.length() / 4 - 1;
+        int start = 0;
+        while (start < groups.length && groups[start] == 0) {
+            start++;
+            weight--;
+        }
+        int end = groups.length;
+        while (end > start && groups[end - 1] == 0) {
+            end--;
+        }
+        if (start == end) {
+            weight = 0;
+        }
+        out.writeInt(8 + 2 * (end - start));
+        out.writeShort(end - start);
+        out.writeShort(weight);
+        out.writeShort(decimal.signum() < 0 ? 0x4000 : 0);
+        out.writeShort(decimal.scale());
+        for (int i = start; i < end; i++) {
+            out.writeShort(groups[i]);
+        }
+    }
+
+    /**
+     * 字段值二进制编码器，写入值的长度和内容
+     */
+    @FunctionalInterface
+    private interface Encoder {
+
+        /**
+         * 写入非null的字段值
+         *
+         * @param out 输出流
+         * @param value 字段值
+         * @throws IOException 写入失败
+         */
+        void write(DataOutputStream out, Object value) throws IOException;
+    }
+}
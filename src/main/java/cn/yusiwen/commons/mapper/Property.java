@@ -0,0 +1,19 @@
+package cn.yusiwen.commons.mapper;
+
+import java.io.Serializable;
+import java.util.function.Function;
+
+/**
+ * 实体属性引用，使用getter方法引用表示实体的属性，如 {@code User::getName}。
+ * <p>
+ * 接口继承 {@link Serializable}，编译器为方法引用生成可序列化的lambda，可以通过 {@link LambdaUtil#propertyName(Property)}
+ * 解析出属性名。与字符串属性名相比，属性改名时编译器可以发现所有引用。
+ *
+ * @param <T> 实体类型
+ * @param <R> 属性类型
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface Property<T, R> extends Function<T, R>, Serializable {
+}
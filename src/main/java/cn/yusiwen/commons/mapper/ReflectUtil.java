@@ -5,7 +5,11 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -17,7 +21,7 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
  * 主要功能包括:
  * <ul>
  * <li>获取类的字段(包括父类继承的字段)</li>
- * <li>获取和设置字段值</li>
+ * <li>获取和设置字段值（通过 {@link FieldAccessor}）</li>
  * <li>调用对象方法</li>
  * <li>检查方法类型(equals/hashCode/toString等)</li>
  * </ul>
@@ -27,6 +31,35 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
  */
 public final class ReflectUtil {
 
+    /**
+     * key -> 类型 value -> (字段名 -> 字段)，包括父类的字段，子类字段优先
+     */
+    private static final ClassValue<Map<String, Field>> FIELD_TABLE = new ClassValue<Map<String, Field>>() {
+        @Override
+        protected Map<String, Field> computeValue(Class<?> type) {
+            Map<String, Field> fields = new HashMap<>(32);
+            for (Field field : getFields(type)) {
+                fields.putIfAbsent(field.getName(), field);
+            }
+            return Collections.unmodifiableMap(fields);
+        }
+    };
+
+    /**
+     * 每个类型最多缓存的字段路径数量
+     */
+    private static final int MAX_PATH_CACHE_SIZE = 256;
+
+    /**
+     * key -> 取值对象的类型 value -> (字段路径 -> 预先解析的字段路径)，不持有类的强引用，类被卸载时随之回收
+     */
+    private static final ClassValue<Map<String, FieldPath>> PATH_TABLE = new ClassValue<Map<String, FieldPath>>() {
+        @Override
+        protected Map<String, FieldPath> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>(16);
+        }
+    };
+
     private ReflectUtil() {}
 
     /**
@@ -73,14 +106,17 @@ public final class ReflectUtil {
     }
 
     /**
-     * 获取指定类中指定名称的字段，包括父类中的字段。
+     * 获取指定类中指定名称的字段，包括父类中的字段。按类缓存字段名到字段的索引，不再逐级扫描。
      *
      * @param clazz 要查找的类
      * @param name 字段名称
      * @return 找到的字段对象，如果未找到返回null
      */
     public static Field getField(Class<?> clazz, String name) {
-        return getField(clazz, name, null);
+        if (name == null || clazz == null || clazz == Object.class) {
+            return getField(clazz, name, null);
+        }
+        return FIELD_TABLE.get(clazz).get(name);
     }
 
     /**
@@ -104,21 +140,14 @@ public final class ReflectUtil {
     }
 
     /**
-     * 获取字段值
+     * 获取字段值，通过缓存的 {@link FieldAccessor} 读取
      *
      * @param field 字段
      * @param target 字段所属实例对象
      * @return 字段值
      */
-    @SuppressFBWarnings("EXS_EXCEPTION_SOFTENING_NO_CONSTRAINTS")
     public static Object getFieldValue(Field field, Object target) {
-        makeAccessible(field);
-        try {
-            return field.get(target);
-        } catch (Exception e) {
-            throw new IllegalStateException(
-                String.format("获取%s对象的%s字段值错误!", target.getClass().getName(), field.getName()), e);
-        }
+        return FieldAccessor.of(field).get(target);
     }
 
     /**
@@ -138,41 +167,46 @@ public final class ReflectUtil {
     /**
      * 获取指定对象中指定字段路径的值(类似js访问对象属性) <br/>
      * 如：Product p = new Product(new User()) <br/>
-     * 可使用ReflectionUtils.getValueByFieldPath(p, "user.name")获取到用户的name属性
+     * 可使用ReflectionUtils.getValueByFieldPath(p, "user.name")获取到用户的name属性。
+     * 解析后的路径按取值对象的类型和路径缓存，每个类型最多缓存 {@link #MAX_PATH_CACHE_SIZE} 个路径，
+     * 超过后新的路径每次重新解析；路径由调用方拼接、数量不固定时应使用 {@link #compilePath(String)} 并自行持有。
      *
      * @param obj 取值对象
      * @param fieldPath 字段路径(形如 user.name)
      * @return 字段value
      */
     public static Object getValueByFieldPath(Object obj, String fieldPath) {
-        String[] fieldNames = fieldPath.split("\\.");
-        Object result = null;
-        for (String fieldName : fieldNames) {
-            result = getFieldValue(obj, fieldName);
-            if (result == null) {
-                return null;
+        Map<String, FieldPath> paths = PATH_TABLE.get(obj.getClass());
+        FieldPath path = paths.get(fieldPath);
+        if (path == null) {
+            path = compilePath(fieldPath);
+            if (paths.size() < MAX_PATH_CACHE_SIZE) {
+                paths.putIfAbsent(fieldPath, path);
             }
-            obj = result;
         }
-        return result;
+        return path.get(obj);
     }
 
     /**
-     * 设置字段值
+     * 预先解析字段路径，返回的 {@link FieldPath} 可以重复使用，多次访问同一路径时比
+     * {@link #getValueByFieldPath(Object, String)} 少一次缓存查找
+     *
+     * @param fieldPath 字段路径(形如 user.name)
+     * @return 字段路径
+     */
+    public static FieldPath compilePath(String fieldPath) {
+        return new FieldPath(fieldPath);
+    }
+
+    /**
+     * 设置字段值，通过缓存的 {@link FieldAccessor} 写入
      *
      * @param field 字段
      * @param target 字段所属对象实例
      * @param value 需要设置的值
      */
-    @SuppressFBWarnings("EXS_EXCEPTION_SOFTENING_NO_CONSTRAINTS")
     public static void setFieldValue(Field field, Object target, Object value) {
-        makeAccessible(field);
-        try {
-            field.set(target, value);
-        } catch (Exception e) {
-            throw new IllegalStateException(
-                String.format("设置%s对象的%s字段值错误!", target.getClass().getName(), field.getName()), e);
-        }
+        FieldAccessor.of(field).set(target, value);
     }
 
     /**
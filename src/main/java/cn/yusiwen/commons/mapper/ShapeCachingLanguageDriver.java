@@ -0,0 +1,70 @@
+package cn.yusiwen.commons.mapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * 缓存解析结果的 LanguageDriver。
+ * <p>
+ * MyBatis 对 {@literal @SelectProvider} 等注解生成的语句，每次执行时都会将 Provider 方法返回的 SQL 交给 LanguageDriver 重新解析
+ * {@code #{}} 占位符。Provider 方法按语句形态缓存 SQL 时（如 {@link BaseMapper.SelectByCriteriaSqlProvider}），
+ * 相同形态的调用返回同一个 SQL，此 LanguageDriver 按参数类型和 SQL 缓存解析后的 {@link SqlSource}，相同形态的语句只解析一次。
+ * <p>
+ * 缓存的 SQL 数量超过 {@link #MAX_CACHE_SIZE} 后不再缓存新的 SQL，避免形态过多的语句占用过多内存。
+ *
+ * <p>
+ * 使用示例：
+ *
+ * <pre>
+ * &#64;Lang(ShapeCachingLanguageDriver.class)
+ * &#64;SelectProvider(type = SelectByCriteriaSqlProvider.class, method = "sql")
+ * List&lt;S&gt; queryByCriteria(Criteria criteria);
+ * </pre>
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+public class ShapeCachingLanguageDriver extends XMLLanguageDriver {
+
+    /**
+     * 最多缓存的SQL数量
+     */
+    public static final int MAX_CACHE_SIZE = 4096;
+
+    /**
+     * key -> 参数类型 value -> (SQL -> SqlSource)
+     */
+    private final Map<Class<?>, Map<String, SqlSource>> cache = new ConcurrentHashMap<>(8);
+
+    /**
+     * 已缓存的SQL数量
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * 创建一个新的ShapeCachingLanguageDriver实例。
+     */
+    public ShapeCachingLanguageDriver() {
+        // this constructor is empty
+    }
+
+    @Override
+    public SqlSource createSqlSource(Configuration configuration, String script, Class<?> parameterType) {
+        Class<?> key = parameterType == null ? Object.class : parameterType;
+        Map<String, SqlSource> sources = cache.computeIfAbsent(key, k -> new ConcurrentHashMap<>(16));
+        SqlSource sqlSource = sources.get(script);
+        if (sqlSource != null) {
+            return sqlSource;
+        }
+        sqlSource = super.createSqlSource(configuration, script, parameterType);
+        if (size.get() < MAX_CACHE_SIZE && sources.putIfAbsent(script, sqlSource) == null) {
+            size.incrementAndGet();
+        }
+        return sqlSource;
+    }
+}
@@ -0,0 +1,75 @@
+package cn.yusiwen.commons.mapper;
+
+/**
+ * 编译期生成的实体表元数据。
+ * <p>
+ * 由 {@link cn.yusiwen.commons.mapper.processor.TableMetadataProcessor} 为每个标注了
+ * {@link cn.yusiwen.commons.mapper.annotation.Table} 的实体生成，类名为实体的二进制类名（{@code $} 替换为 {@code _}）加上
+ * {@link #CLASS_NAME_SUFFIX}，如 {@code com.example.User_TableMetadata}。
+ * {@link BaseMapper.TableInfo#forEntity(Class)} 创建表信息时如果找到生成类，直接使用其中的表名、列名和主键字段，不再扫描
+ * {@link cn.yusiwen.commons.mapper.annotation.Table}、{@link cn.yusiwen.commons.mapper.annotation.NotColumn}、
+ * {@link cn.yusiwen.commons.mapper.annotation.PrimaryKey} 注解，也不再转换列名。
+ * <p>
+ * 生成类只省去了注解扫描和列名转换：表信息仍按字段名通过反射获取 {@link java.lang.reflect.Field} 并创建 {@link FieldAccessor}，
+ * 生成SQL时仍从字段上读取 {@link cn.yusiwen.commons.mapper.annotation.JSONColumn}，使用GraalVM native-image时这些字段仍需注册反射。
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+public interface TableMetadata {
+
+    /**
+     * 生成类的类名后缀
+     */
+    String CLASS_NAME_SUFFIX = "_TableMetadata";
+
+    /**
+     * 获取表名
+     *
+     * @return 表名
+     */
+    String tableName();
+
+    /**
+     * 获取第一个标注了 {@link cn.yusiwen.commons.mapper.annotation.PrimaryKey} 的字段名，主键列由该字段确定
+     *
+     * @return 主键字段名，没有标注时返回null
+     */
+    String primaryKeyField();
+
+    /**
+     * 获取所有标注了 {@link cn.yusiwen.commons.mapper.annotation.PrimaryKey} 的字段名，这些字段都不出现在插入、更新的列中，
+     * 顺序与 {@link #fieldNames()} 相同
+     *
+     * @return 主键字段名数组，没有标注时返回空数组
+     */
+    String[] primaryKeyFields();
+
+    /**
+     * 获取主键列名，没有标注主键字段时为 {@code id}
+     *
+     * @return 主键列名
+     */
+    String primaryKeyColumn();
+
+    /**
+     * 获取映射到数据库列的字段名，顺序与 {@link ReflectUtil#getFields(Class)} 相同（子类字段在前）
+     *
+     * @return 字段名数组
+     */
+    String[] fieldNames();
+
+    /**
+     * 获取列名，与 {@link #fieldNames()} 一一对应
+     *
+     * @return 列名数组
+     */
+    String[] columns();
+
+    /**
+     * 获取SELECT语句的列，带下划线的列为 {@code aa_bb AS aaBb} 形式，与 {@link #fieldNames()} 一一对应
+     *
+     * @return SELECT语句的列
+     */
+    String[] selectColumns();
+}
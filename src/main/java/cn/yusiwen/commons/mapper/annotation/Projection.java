@@ -0,0 +1,56 @@
+package cn.yusiwen.commons.mapper.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 此注解用于声明投影查询只查询实体的部分列。
+ * <p>
+ * 投影查询的列由mapper方法返回的投影类型（或集合、游标的元素类型）的字段确定，字段按名称与实体的字段匹配，
+ * 只查询匹配的列，不需要的大字段（如长文本、JSON列）不会被查询和传输。
+ *
+ * <p>
+ * 注解目标：
+ * <ul>
+ * <li>类级别：标记投影类型，value为空时使用投影类型中所有映射列的字段。</li>
+ * <li>方法级别：value指定查询的字段名，适用于只查询部分列到实体类型中。方法上的注解优先于类上的注解。</li>
+ * </ul>
+ *
+ * <p>
+ * 使用示例：
+ *
+ * <pre>
+ * &#64;Projection
+ * public class UserSummary {
+ *     private long id;
+ *     private String name;
+ * }
+ *
+ * public interface UserMapper extends BaseMapper&lt;User&gt; {
+ *     &#64;SelectProvider(type = SelectProjectionByIdsSqlProvider.class, method = "sql")
+ *     List&lt;UserSummary&gt; querySummaries(&#64;Param("ids") List&lt;Long&gt; ids);
+ *
+ *     &#64;Projection({"id", "name"})
+ *     &#64;SelectProvider(type = SelectProjectionByIdSqlProvider.class, method = "sql")
+ *     User queryNameById(Long id);
+ * }
+ * </pre>
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Projection {
+
+    /**
+     * 查询的字段名
+     *
+     * @return 字段名数组，为空时使用投影类型中所有映射列的字段
+     */
+    String[] value() default {};
+}
@@ -0,0 +1,211 @@
+package cn.yusiwen.commons.mapper.processor;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import cn.yusiwen.commons.mapper.StrUtil;
+import cn.yusiwen.commons.mapper.TableMetadata;
+import cn.yusiwen.commons.mapper.annotation.NotColumn;
+import cn.yusiwen.commons.mapper.annotation.PrimaryKey;
+import cn.yusiwen.commons.mapper.annotation.Table;
+
+/**
+ * 表元数据注解处理器，在编译期为标注了 {@link Table} 的实体生成 {@link TableMetadata} 实现类。
+ * <p>
+ * 字段的筛选规则与运行时的 {@link cn.yusiwen.commons.mapper.BaseMapper.TableInfo} 相同：按子类到父类的顺序收集字段，
+ * 排除静态字段、标注了 {@link NotColumn} 的字段和实体类上 {@link NotColumn#fields()} 指定的字段，
+ * 列名由字段名的驼峰转换为下划线形式，同时记录所有标注了 {@link PrimaryKey} 的字段。运行时找到生成类后不再扫描注解和转换列名，
+ * 减少应用启动和首次请求时的开销；字段仍通过反射按名称获取（参见 {@link TableMetadata}）。
+ *
+ * <p>
+ * 处理器是可选的，需要在编译时显式启用（同时使用Lombok时需一并列出Lombok的处理器），如Maven：
+ *
+ * <pre>
+ * &lt;annotationProcessors&gt;
+ *     &lt;annotationProcessor&gt;lombok.launch.AnnotationProcessorHider$AnnotationProcessor&lt;/annotationProcessor&gt;
+ *     &lt;annotationProcessor&gt;cn.yusiwen.commons.mapper.processor.TableMetadataProcessor&lt;/annotationProcessor&gt;
+ * &lt;/annotationProcessors&gt;
+ * </pre>
+ *
+ * @author Siwen Yu (yusiwen@gmail.com)
+ * @since 1.0
+ */
+@SupportedAnnotationTypes("cn.yusiwen.commons.mapper.annotation.Table")
+public class TableMetadataProcessor extends AbstractProcessor {
+
+    /**
+     * 默认主键列名，与TableInfo一致
+     */
+    private static final String DEFAULT_PRIMARY_KEY = "id";
+
+    /**
+     * 创建一个新的TableMetadataProcessor实例。
+     */
+    public TableMetadataProcessor() {
+        // this constructor is empty
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Table.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            TypeElement entity = (TypeElement)element;
+            try {
+                generate(entity);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "生成" + entity.getQualifiedName() + "的表元数据错误: " + e.getMessage(), entity);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 生成实体的表元数据类
+     *
+     * @param entity 实体类型
+     * @throws IOException 写入源文件失败
+     */
+    private void generate(TypeElement entity) throws IOException {
+        List<VariableElement> fields = columnFields(entity);
+        String[] names = fields.stream().map(field -> field.getSimpleName().toString()).toArray(String[]::new);
+        String[] columns = Arrays.stream(names).map(StrUtil::camel2Underscore).toArray(String[]::new);
+        String[] selectColumns = new String[names.length];
+        List<String> primaryKeyFields = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            selectColumns[i] = columns[i].contains("_") ? columns[i] + " AS " + names[i] : columns[i];
+            if (fields.get(i).getAnnotation(PrimaryKey.class) != null) {
+                primaryKeyFields.add(names[i]);
+            }
+        }
+        String primaryKeyField = primaryKeyFields.isEmpty() ? null : primaryKeyFields.get(0);
+        String primaryKeyColumn =
+            primaryKeyField == null ? DEFAULT_PRIMARY_KEY : StrUtil.camel2Underscore(primaryKeyField);
+
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(entity);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(entity).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+            .replace('$', '_') + TableMetadata.CLASS_NAME_SUFFIX;
+        String className = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        try (PrintWriter out =
+            new PrintWriter(processingEnv.getFiler().createSourceFile(className, entity).openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("/**");
+            out.println(" * {@link " + entity.getQualifiedName() + "} 的表元数据，由 "
+                + TableMetadataProcessor.class.getSimpleName() + " 生成，请勿修改");
+            out.println(" */");
+            out.println("public final class " + simpleName + " implements " + TableMetadata.class.getName() + " {");
+            out.println();
+            out.println("    private static final String[] FIELD_NAMES = " + literal(names) + ";");
+            out.println();
+            out.println("    private static final String[] COLUMNS = " + literal(columns) + ";");
+            out.println();
+            out.println("    private static final String[] SELECT_COLUMNS = " + literal(selectColumns) + ";");
+            out.println();
+            out.println("    private static final String[] PRIMARY_KEY_FIELDS = "
+                + literal(primaryKeyFields.toArray(new String[0])) + ";");
+            method(out, "String", "tableName", literal(entity.getAnnotation(Table.class).value()));
+            method(out, "String", "primaryKeyField", primaryKeyField == null ? "null" : literal(primaryKeyField));
+            method(out, "String[]", "primaryKeyFields", "PRIMARY_KEY_FIELDS.clone()");
+            method(out, "String", "primaryKeyColumn", literal(primaryKeyColumn));
+            method(out, "String[]", "fieldNames", "FIELD_NAMES.clone()");
+            method(out, "String[]", "columns", "COLUMNS.clone()");
+            method(out, "String[]", "selectColumns", "SELECT_COLUMNS.clone()");
+            out.println("}");
+        }
+    }
+
+    /**
+     * 按子类到父类的顺序收集映射到数据库列的字段
+     *
+     * @param entity 实体类型
+     * @return 字段列表
+     */
+    private List<VariableElement> columnFields(TypeElement entity) {
+        NotColumn notColumn = entity.getAnnotation(NotColumn.class);
+        List<String> excludes = notColumn == null ? Collections.emptyList() : Arrays.asList(notColumn.fields());
+        List<VariableElement> fields = new ArrayList<>();
+        TypeElement type = entity;
+        while (type != null && !Object.class.getName().contentEquals(type.getQualifiedName())) {
+            fields.addAll(ElementFilter.fieldsIn(type.getEnclosedElements()).stream()
+                .filter(field -> !field.getModifiers().contains(Modifier.STATIC)
+                    && field.getAnnotation(NotColumn.class) == null
+                    && !excludes.contains(field.getSimpleName().toString()))
+                .collect(Collectors.toList()));
+            TypeMirror superclass = type.getSuperclass();
+            type = superclass.getKind() == TypeKind.DECLARED
+                ? (TypeElement)((DeclaredType)superclass).asElement() : null;
+        }
+        return fields;
+    }
+
+    /**
+     * 输出返回常量的方法
+     *
+     * @param out 输出
+     * @param returnType 返回类型
+     * @param name 方法名
+     * @param value 返回值表达式
+     */
+    private static void method(PrintWriter out, String returnType, String name, String value) {
+        out.println();
+        out.println("    @Override");
+        out.println("    public " + returnType + " " + name + "() {");
+        out.println("        return " + value + ";");
+        out.println("    }");
+    }
+
+    /**
+     * 生成字符串数组字面量
+     *
+     * @param values 字符串
+     * @return 数组字面量
+     */
+    private static String literal(String[] values) {
+        return Arrays.stream(values).map(TableMetadataProcessor::literal).collect(Collectors.joining(", ", "{", "}"));
+    }
+
+    /**
+     * 生成字符串字面量
+     *
+     * @param value 字符串
+     * @return 字符串字面量
+     */
+    private static String literal(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -4,12 +4,15 @@ import java.io.IOException;
 import java.io.Reader;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
 
 import javax.sql.DataSource;
 
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.jdbc.ScriptRunner;
 
+import cn.yusiwen.commons.mapper.query.User;
+
 public class BaseDataTest {
 
     public static void runScript(DataSource ds, String resource) throws IOException, SQLException {
@@ -29,6 +32,16 @@ public class BaseDataTest {
         }
     }
 
+    public static User newUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setCreatedTime(LocalDateTime.now());
+        user.setCreatedBy("test");
+        user.setUpdatedTime(LocalDateTime.now());
+        user.setUpdatedBy("test");
+        return user;
+    }
+
     public static void printClassSource(ClassLoader classLoader, String className) {
         try {
             // 1. 加载目标类
@@ -0,0 +1,185 @@
+package cn.yusiwen.commons.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+
+import org.junit.jupiter.api.Test;
+
+import cn.yusiwen.commons.mapper.query.User;
+
+class ReflectUtilTest {
+
+    @Test
+    void testGetField() throws NoSuchFieldException {
+        // 父类的字段
+        assertEquals(Parent.class.getDeclaredField("id"), ReflectUtil.getField(Child.class, "id"));
+        // 子类遮蔽父类的同名字段时取子类的字段
+        assertEquals(Child.class.getDeclaredField("name"), ReflectUtil.getField(Child.class, "name"));
+        assertEquals(Parent.class.getDeclaredField("name"), ReflectUtil.getField(Parent.class, "name"));
+        assertNull(ReflectUtil.getField(Child.class, "missing"));
+        assertNull(ReflectUtil.getField(Object.class, "id"));
+
+        Field[] fields = ReflectUtil.getFields(Child.class, field -> "name".equals(field.getName()));
+        assertArrayEquals(new Field[] {Child.class.getDeclaredField("name"), Parent.class.getDeclaredField("name")},
+            fields);
+    }
+
+    @Test
+    void testGetFieldValue() {
+        Child child = new Child(1L, "parent", "child");
+        assertEquals(1L, ReflectUtil.getFieldValue(child, "id"));
+        assertEquals("child", ReflectUtil.getFieldValue(child, "name"));
+        assertEquals("parent", ReflectUtil.getFieldValue(ReflectUtil.getField(Parent.class, "name"), child));
+        // 包装类直接返回对象本身
+        assertEquals(3, ReflectUtil.getFieldValue(3, "value"));
+    }
+
+    @Test
+    void testFieldPath() {
+        Holder holder = new Holder(new Child(1L, "parent", "child"));
+        FieldPath path = ReflectUtil.compilePath("child.name");
+        assertEquals("child.name", path.getPath());
+        assertEquals("child", path.get(holder));
+        assertEquals(1L, ReflectUtil.compilePath("child.id").get(holder));
+
+        // 中间的值为null时返回null
+        assertNull(path.get(new Holder(null)));
+        // 遇到包装类或字符串时直接返回该对象
+        assertEquals("child", ReflectUtil.compilePath("child.name.value").get(holder));
+
+        // 同一路径用于不同类型的对象时按新类型重新查找字段
+        assertEquals("other", path.get(new OtherHolder(new Parent(2L, "other"))));
+        assertEquals("child", path.get(holder));
+
+        // 缺少的字段
+        IllegalArgumentException e =
+            assertThrows(IllegalArgumentException.class, () -> ReflectUtil.compilePath("child.missing").get(holder));
+        assertEquals(Child.class.getName() + "没有missing字段.", e.getMessage());
+    }
+
+    @Test
+    void testGetValueByFieldPath() {
+        Holder holder = new Holder(new Child(1L, "parent", "child"));
+        assertEquals("child", ReflectUtil.getValueByFieldPath(holder, "child.name"));
+        // 相同的路径按取值对象的类型分别缓存
+        assertEquals("other", ReflectUtil.getValueByFieldPath(new OtherHolder(new Parent(2L, "other")), "child.name"));
+        assertEquals("child", ReflectUtil.getValueByFieldPath(holder, "child.name"));
+        assertNull(ReflectUtil.getValueByFieldPath(new Holder(null), "child.name"));
+        assertThrows(IllegalArgumentException.class, () -> ReflectUtil.getValueByFieldPath(holder, "missing"));
+    }
+
+    @Test
+    void testFieldAccessor() throws NoSuchFieldException {
+        Field id = Parent.class.getDeclaredField("id");
+        FieldAccessor accessor = FieldAccessor.of(id);
+        assertSame(accessor, FieldAccessor.of(id));
+        assertEquals(id, accessor.getField());
+
+        Child child = new Child(1L, "parent", "child");
+        accessor.set(child, 2L);
+        assertEquals(2L, accessor.get(child));
+
+        // 子类与父类的同名字段分别访问
+        FieldAccessor childName = FieldAccessor.of(Child.class.getDeclaredField("name"));
+        FieldAccessor parentName = FieldAccessor.of(Parent.class.getDeclaredField("name"));
+        childName.set(child, "child2");
+        assertEquals("child2", childName.get(child));
+        assertEquals("parent", parentName.get(child));
+
+        // 基本类型装箱读取
+        FieldAccessor count = FieldAccessor.of(Child.class.getDeclaredField("count"));
+        count.set(child, 5);
+        assertEquals(5, count.get(child));
+
+        // final实例字段
+        FieldAccessor version = FieldAccessor.of(Child.class.getDeclaredField("version"));
+        version.set(child, 7);
+        assertEquals(7, version.get(child));
+
+        // 静态字段
+        FieldAccessor counter = FieldAccessor.of(Child.class.getDeclaredField("counter"));
+        counter.set(null, 9);
+        assertEquals(9, counter.get(null));
+
+        // 类型不匹配
+        assertThrows(IllegalStateException.class, () -> accessor.set(child, "x"));
+        assertThrows(IllegalStateException.class, () -> accessor.get(new Holder(null)));
+    }
+
+    @Test
+    void testGeneratedFieldAccessor() {
+        // 有public getter、setter的字段通过生成的访问器类读写
+        FieldAccessor id = FieldAccessor.of(ReflectUtil.getField(User.class, "id"));
+        FieldAccessor name = FieldAccessor.of(ReflectUtil.getField(User.class, "name"));
+        assertTrue(id.isGenerated());
+        assertTrue(name.isGenerated());
+        // 非public的嵌套类和没有getter、setter的字段使用MethodHandle
+        assertFalse(FieldAccessor.of(ReflectUtil.getField(Child.class, "name")).isGenerated());
+        assertFalse(FieldAccessor.of(ReflectUtil.getField(User.class, "snapshot")).isGenerated());
+
+        User user = new User();
+        id.set(user, 3L);
+        name.set(user, "generated");
+        assertEquals(3L, user.getId());
+        assertEquals(3L, id.get(user));
+        assertEquals("generated", name.get(user));
+
+        // 类型不匹配、基本类型写入null
+        assertThrows(IllegalStateException.class, () -> id.set(user, "x"));
+        assertThrows(IllegalStateException.class, () -> id.set(user, null));
+        assertThrows(IllegalStateException.class, () -> name.get(new Holder(null)));
+    }
+
+    static class Parent {
+
+        private Long id;
+
+        private String name;
+
+        Parent(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    static class Child extends Parent {
+
+        private static int counter;
+
+        private String name;
+
+        private int count;
+
+        private final int version = 1;
+
+        Child(Long id, String parentName, String name) {
+            super(id, parentName);
+            this.name = name;
+        }
+    }
+
+    static class Holder {
+
+        private final Child child;
+
+        Holder(Child child) {
+            this.child = child;
+        }
+    }
+
+    static class OtherHolder {
+
+        private final Parent child;
+
+        OtherHolder(Parent child) {
+            this.child = child;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package cn.yusiwen.commons.mapper.benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import cn.yusiwen.commons.mapper.FieldAccessor;
+import cn.yusiwen.commons.mapper.ReflectUtil;
+import cn.yusiwen.commons.mapper.query.User;
+
+/**
+ * 比较 {@link FieldAccessor} 与反射、MethodHandle读写实体字段的耗时。
+ * <p>
+ * {@code name} 开头的方法读写单个字段，{@code row} 开头的方法依次读写实体的所有列字段，与逐行绑定参数、映射结果时的访问方式相同。
+ * 在IDE中运行 {@link #main(String[])}，或通过 {@code org.openjdk.jmh.Main} 使用测试classpath运行。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FieldAccessorBenchmark {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private User user;
+
+    private Field nameField;
+
+    private MethodHandle nameGetter;
+
+    private MethodHandle nameSetter;
+
+    private FieldAccessor nameAccessor;
+
+    private Field[] fields;
+
+    private MethodHandle[] getters;
+
+    private FieldAccessor[] accessors;
+
+    @Setup
+    public void setUp() throws IllegalAccessException {
+        user = new User();
+        user.setId(1L);
+        user.setName("benchmark");
+        user.setCreatedTime(LocalDateTime.now());
+        user.setCreatedBy("benchmark");
+
+        nameField = ReflectUtil.getField(User.class, "name");
+        nameField.setAccessible(true);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        nameGetter = lookup.unreflectGetter(nameField).asType(GETTER_TYPE);
+        nameSetter = lookup.unreflectSetter(nameField).asType(SETTER_TYPE);
+        nameAccessor = FieldAccessor.of(nameField);
+
+        fields = ReflectUtil.getFields(User.class, field -> !"snapshot".equals(field.getName()));
+        getters = new MethodHandle[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i].setAccessible(true);
+            getters[i] = lookup.unreflectGetter(fields[i]).asType(GETTER_TYPE);
+        }
+        accessors = FieldAccessor.of(fields);
+    }
+
+    @Benchmark
+    public Object nameGetDirect() {
+        return user.getName();
+    }
+
+    @Benchmark
+    public Object nameGetReflection() throws IllegalAccessException {
+        return nameField.get(user);
+    }
+
+    @Benchmark
+    public Object nameGetMethodHandle() throws Throwable {
+        return nameGetter.invokeExact((Object)user);
+    }
+
+    @Benchmark
+    public Object nameGetAccessor() {
+        return nameAccessor.get(user);
+    }
+
+    @Benchmark
+    public void nameSetReflection() throws IllegalAccessException {
+        nameField.set(user, "benchmark");
+    }
+
+    @Benchmark
+    public void nameSetMethodHandle() throws Throwable {
+        nameSetter.invokeExact((Object)user, (Object)"benchmark");
+    }
+
+    @Benchmark
+    public void nameSetAccessor() {
+        nameAccessor.set(user, "benchmark");
+    }
+
+    @Benchmark
+    public void rowGetReflection(Blackhole blackhole) throws IllegalAccessException {
+        for (Field field : fields) {
+            blackhole.consume(field.get(user));
+        }
+    }
+
+    @Benchmark
+    public void rowGetMethodHandle(Blackhole blackhole) throws Throwable {
+        for (MethodHandle getter : getters) {
+            blackhole.consume(getter.invokeExact((Object)user));
+        }
+    }
+
+    @Benchmark
+    public void rowGetAccessor(Blackhole blackhole) {
+        for (FieldAccessor accessor : accessors) {
+            blackhole.consume(accessor.get(user));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FieldAccessorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
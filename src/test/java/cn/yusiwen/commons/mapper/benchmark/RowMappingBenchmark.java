@@ -0,0 +1,117 @@
+package cn.yusiwen.commons.mapper.benchmark;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import cn.yusiwen.commons.mapper.BaseMapper;
+import cn.yusiwen.commons.mapper.EntityRowMappingInterceptor;
+import cn.yusiwen.commons.mapper.MapperSqlCompiler;
+import cn.yusiwen.commons.mapper.query.User;
+
+/**
+ * 比较 {@link EntityRowMappingInterceptor} 与 MyBatis 默认结果处理将查询结果映射为实体的耗时。
+ * <p>
+ * 两个SqlSessionFactory使用同一个H2内存数据库和相同的预编译mapper，区别只在于是否注册了此插件；每次调用查询 {@code rows} 行。
+ * 结果包含H2执行查询的时间，两者的差值即为结果映射的开销。
+ * 在IDE中运行 {@link #main(String[])}，或通过 {@code org.openjdk.jmh.Main} 使用测试classpath运行。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowMappingBenchmark {
+
+    @Param({"100", "10000"})
+    private int rows;
+
+    private PooledDataSource dataSource;
+
+    private SqlSessionFactory myBatis;
+
+    private SqlSessionFactory entityRowMapping;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dataSource = new PooledDataSource("org.h2.Driver", "jdbc:h2:mem:row_mapping;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS users");
+            statement.execute("CREATE TABLE users (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(20), "
+                + "created_time TIMESTAMP NOT NULL, created_by VARCHAR(32) NOT NULL, "
+                + "updated_time TIMESTAMP NOT NULL, updated_by VARCHAR(32) NOT NULL)");
+            statement.execute("INSERT INTO users(name, created_time, created_by, updated_time, updated_by) "
+                + "SELECT 'User' || x, NOW(), 'benchmark', NOW(), 'benchmark' FROM SYSTEM_RANGE(1, " + rows + ")");
+        }
+        myBatis = sqlSessionFactory(dataSource, false);
+        entityRowMapping = sqlSessionFactory(dataSource, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.forceCloseAll();
+    }
+
+    @Benchmark
+    public List<User> myBatis() {
+        return query(myBatis);
+    }
+
+    @Benchmark
+    public List<User> entityRowMapping() {
+        return query(entityRowMapping);
+    }
+
+    private List<User> query(SqlSessionFactory sqlSessionFactory) {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            return sqlSession.getMapper(UserMapper.class).queryAfterId(0L, rows);
+        }
+    }
+
+    private static SqlSessionFactory sqlSessionFactory(DataSource dataSource, boolean rowMapping) {
+        Configuration configuration =
+            new Configuration(new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+        configuration.setDatabaseId("H2");
+        if (rowMapping) {
+            configuration.addInterceptor(new EntityRowMappingInterceptor());
+        }
+        MapperSqlCompiler.addMapper(configuration, UserMapper.class);
+        return new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    public interface UserMapper extends BaseMapper<User> {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RowMappingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
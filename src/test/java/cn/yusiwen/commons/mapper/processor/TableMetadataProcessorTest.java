@@ -0,0 +1,132 @@
+package cn.yusiwen.commons.mapper.processor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import cn.yusiwen.commons.mapper.BaseEntity;
+import cn.yusiwen.commons.mapper.BaseMapper.TableInfo;
+import cn.yusiwen.commons.mapper.TableMetadata;
+
+class TableMetadataProcessorTest {
+
+    private static final String ENTITY = "cn.yusiwen.commons.mapper.processor.entity.Order";
+
+    private static final String SOURCE = String.join("\n",
+        "package cn.yusiwen.commons.mapper.processor.entity;",
+        "",
+        "import cn.yusiwen.commons.mapper.BaseEntity;",
+        "import cn.yusiwen.commons.mapper.annotation.NotColumn;",
+        "import cn.yusiwen.commons.mapper.annotation.PrimaryKey;",
+        "import cn.yusiwen.commons.mapper.annotation.Table;",
+        "",
+        "@Table(\"orders\")",
+        "@NotColumn(fields = \"remark\")",
+        "public class Order extends BaseEntity {",
+        "    private static final String TYPE = \"order\";",
+        "    @PrimaryKey",
+        "    private Long tenantId;",
+        "    private String orderNo;",
+        "    private String remark;",
+        "    @NotColumn",
+        "    private String display;",
+        "    private Integer amount;",
+        "}",
+        "");
+
+    @Test
+    void testMetadataMatchesReflection(@TempDir Path dir) throws Exception {
+        Path source = dir.resolve("src/cn/yusiwen/commons/mapper/processor/entity/Order.java");
+        Files.createDirectories(source.getParent());
+        Files.write(source, SOURCE.getBytes(StandardCharsets.UTF_8));
+        Path processed =
+            compile(source, dir.resolve("processed"), "-processor", TableMetadataProcessor.class.getName());
+        Path reflected = compile(source, dir.resolve("reflected"), "-proc:none");
+
+        try (URLClassLoader processedLoader = loader(processed); URLClassLoader reflectedLoader = loader(reflected)) {
+            Class<?> processedEntity = processedLoader.loadClass(ENTITY);
+            Class<?> reflectedEntity = reflectedLoader.loadClass(ENTITY);
+            TableMetadata metadata = (TableMetadata)processedLoader
+                .loadClass(ENTITY + TableMetadata.CLASS_NAME_SUFFIX).getDeclaredConstructor().newInstance();
+            assertNotNull(metadata);
+            assertEquals("tenantId", metadata.primaryKeyField());
+            assertArrayEquals(new String[] {"tenantId", "id"}, metadata.primaryKeyFields());
+            assertThrows(ClassNotFoundException.class,
+                () -> reflectedLoader.loadClass(ENTITY + TableMetadata.CLASS_NAME_SUFFIX));
+
+            // 使用生成的元数据和反射扫描得到的表信息相同
+            TableInfo expected = TableInfo.forEntity(reflectedEntity);
+            TableInfo actual = TableInfo.forEntity(processedEntity);
+            assertEquals("orders", actual.getTableName());
+            assertEquals(expected.getTableName(), actual.getTableName());
+            assertEquals(expected.getPrimaryKeyColumn(), actual.getPrimaryKeyColumn());
+            assertArrayEquals(expected.getColumns(), actual.getColumns());
+            assertArrayEquals(expected.getColumnsWithoutPrimaryKey(), actual.getColumnsWithoutPrimaryKey());
+            assertArrayEquals(names(expected.getFields()), names(actual.getFields()));
+            // 所有标注了@PrimaryKey的字段都被排除
+            assertArrayEquals(
+                new String[] {"orderNo", "amount", "createdTime", "createdBy", "updatedTime", "updatedBy"},
+                names(actual.getFieldsWithoutPrimaryKey()));
+            assertArrayEquals(names(expected.getFieldsWithoutPrimaryKey()), names(actual.getFieldsWithoutPrimaryKey()));
+        }
+    }
+
+    /**
+     * 编译实体源文件
+     */
+    private static Path compile(Path source, Path output, String... options) throws IOException {
+        Files.createDirectories(output);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> args = new ArrayList<>(Arrays.asList("-classpath", classpath(), "-d", output.toString(),
+            "-s", output.toString(), "-encoding", "UTF-8"));
+        args.addAll(Arrays.asList(options));
+        args.add(source.toString());
+        assertEquals(0, compiler.run(null, null, null, args.toArray(new String[0])));
+        return output;
+    }
+
+    /**
+     * 编译使用的classpath，包含本项目的类和处理器依赖的commons-lang3
+     */
+    private static String classpath() {
+        return Stream.of(BaseEntity.class, StringUtils.class).map(type -> {
+            try {
+                return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException(e);
+            }
+        }).collect(Collectors.joining(File.pathSeparator));
+    }
+
+    private static URLClassLoader loader(Path dir) throws IOException {
+        return new URLClassLoader(new URL[] {dir.toUri().toURL()}, TableMetadataProcessorTest.class.getClassLoader());
+    }
+
+    private static String[] names(Field[] fields) {
+        return Stream.of(fields).map(Field::getName).toArray(String[]::new);
+    }
+}
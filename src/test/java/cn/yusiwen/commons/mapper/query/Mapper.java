@@ -2,12 +2,22 @@ package cn.yusiwen.commons.mapper.query;
 
 import java.util.List;
 
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.SelectProvider;
 
 import cn.yusiwen.commons.mapper.BaseMapper;
+import cn.yusiwen.commons.mapper.annotation.Projection;
 
 public interface Mapper extends BaseMapper<User> {
 
     @Select("select * from users")
     List<User> selectUsers();
+
+    @SelectProvider(type = SelectProjectionByIdsSqlProvider.class, method = "sql")
+    List<UserName> queryNames(@Param("ids") List<Long> ids);
+
+    @Projection({"id", "name"})
+    @SelectProvider(type = SelectProjectionByIdSqlProvider.class, method = "sql")
+    User queryNameById(Long id);
 }
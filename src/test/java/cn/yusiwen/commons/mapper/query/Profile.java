@@ -0,0 +1,23 @@
+package cn.yusiwen.commons.mapper.query;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import cn.yusiwen.commons.mapper.BaseEntity;
+import cn.yusiwen.commons.mapper.JSONValue;
+import cn.yusiwen.commons.mapper.annotation.JSONColumn;
+import cn.yusiwen.commons.mapper.annotation.Table;
+
+@Setter
+@Getter
+@ToString
+@Table("profiles")
+public class Profile extends BaseEntity {
+
+    private String name;
+
+    @JSONColumn
+    private JSONValue data;
+
+}
@@ -0,0 +1,6 @@
+package cn.yusiwen.commons.mapper.query;
+
+import cn.yusiwen.commons.mapper.BaseMapper;
+
+public interface ProfileMapper extends BaseMapper<Profile> {
+}
@@ -0,0 +1,17 @@
+package cn.yusiwen.commons.mapper.query;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import cn.yusiwen.commons.mapper.annotation.Projection;
+
+@Setter
+@Getter
+@Projection
+public class UserName {
+
+    private long id;
+
+    private String name;
+
+}
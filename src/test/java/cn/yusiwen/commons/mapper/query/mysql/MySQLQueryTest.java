@@ -1,15 +1,44 @@
 package cn.yusiwen.commons.mapper.query.mysql;
 
+import static cn.yusiwen.commons.mapper.BaseDataTest.newUser;
+import static cn.yusiwen.commons.mapper.Criteria.eq;
+import static cn.yusiwen.commons.mapper.Criteria.gt;
+import static cn.yusiwen.commons.mapper.Criteria.in;
+import static cn.yusiwen.commons.mapper.Criteria.isNotNull;
+import static cn.yusiwen.commons.mapper.Criteria.isNull;
+import static cn.yusiwen.commons.mapper.Criteria.or;
+import static cn.yusiwen.commons.mapper.Criteria.where;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
 import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -22,15 +51,26 @@ import org.junit.jupiter.api.Test;
 import org.testcontainers.containers.MySQLContainer;
 
 import cn.yusiwen.commons.mapper.BaseDataTest;
+import cn.yusiwen.commons.mapper.BaseMapper.TableInfo;
+import cn.yusiwen.commons.mapper.ChangeTracker;
+import cn.yusiwen.commons.mapper.ChangeTrackingInterceptor;
+import cn.yusiwen.commons.mapper.Criteria;
+import cn.yusiwen.commons.mapper.Dialect;
+import cn.yusiwen.commons.mapper.MapperSqlCompiler;
+import cn.yusiwen.commons.mapper.MapperWarmUp;
+import cn.yusiwen.commons.mapper.MySQLLoadDataLoader;
+import cn.yusiwen.commons.mapper.ParallelScanner;
 import cn.yusiwen.commons.mapper.query.Mapper;
 import cn.yusiwen.commons.mapper.query.User;
+import cn.yusiwen.commons.mapper.query.UserName;
 
 @Tag("MySQLQueryTest")
 public class MySQLQueryTest {
 
     private static SqlSessionFactory sqlSessionFactory;
 
-    private static final MySQLContainer<?> container = new MySQLContainer<>();
+    private static final MySQLContainer<?> container = new MySQLContainer<>()
+        .withUrlParam("allowLoadLocalInfile", "true").withCommand("--local-infile=1");
 
     @BeforeAll
     static void setUp() throws SQLException, IOException {
@@ -42,6 +82,8 @@ public class MySQLQueryTest {
             container.getUsername(), container.getPassword());
         Environment environment = new Environment("test", new JdbcTransactionFactory(), dataSource);
         configuration.setEnvironment(environment);
+        configuration.addInterceptor(new ChangeTrackingInterceptor());
+        configuration.setDatabaseId("MySQL");
         configuration.addMapper(Mapper.class);
         sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
 
@@ -76,4 +118,416 @@ public class MySQLQueryTest {
             }
         }
     }
+
+    @Test
+    void testInsertBatch() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                List<User> users = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    users.add(newUser("Batch" + i));
+                }
+                assertEquals(10, mapper.insertBatch(users, Dialect.MYSQL));
+                for (User user : users) {
+                    assertNotEquals(0L, user.getId());
+                    assertEquals(user.getName(), mapper.queryById(user.getId()).getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testQueryByIds() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                List<User> users = mapper.queryByIds(Arrays.asList(1L, 3L, 5L, 3L));
+                assertEquals(3, users.size());
+                users.forEach(user -> assertEquals("User" + user.getId(), user.getName()));
+            }
+        }
+    }
+
+    @Test
+    void testQueryByIdsInOrder() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                List<User> users = mapper.queryByIdsInOrder(Arrays.asList(5L, 1L, 100L, 3L, 5L), Dialect.MYSQL);
+                assertEquals(3, users.size());
+                assertEquals("User5", users.get(0).getName());
+                assertEquals("User1", users.get(1).getName());
+                assertEquals("User3", users.get(2).getName());
+                assertEquals(3, mapper.queryByIds(Arrays.asList(1L, 3L, 5L), Dialect.MYSQL).size());
+            }
+        }
+    }
+
+    @Test
+    void testUpdateById() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User user = mapper.queryById(2L);
+                user.setName("Updated");
+                user.setUpdatedBy("test");
+                assertEquals(1, mapper.updateById(user));
+                assertEquals("Updated", mapper.queryById(2L).getName());
+                assertEquals("test", mapper.queryById(2L).getUpdatedBy());
+
+                User selective = new User();
+                selective.setId(3L);
+                selective.setName("Selective");
+                assertEquals(1, mapper.updateByIdSelective(selective));
+                assertEquals("Selective", mapper.queryById(3L).getName());
+                assertEquals("unknown", mapper.queryById(3L).getCreatedBy());
+            }
+        }
+    }
+
+    @Test
+    void testUpdateChanged() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User user = mapper.queryById(4L);
+                assertEquals(0, mapper.update(user));
+                user.setName("Changed");
+                assertEquals(1, mapper.update(user));
+                assertEquals(0, mapper.update(user));
+                assertEquals("Changed", mapper.queryById(4L).getName());
+            }
+        }
+    }
+
+    @Test
+    void testUpdateScanned() throws IOException {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                mapper.insert(newUser("ScanTracked"));
+                User condition = new User();
+                condition.setName("ScanTracked");
+                User user;
+                try (Cursor<User> cursor = mapper.scanWhere(condition)) {
+                    user = cursor.iterator().next();
+                }
+                assertTrue(ChangeTracker.isTracked(user));
+
+                // 扫描后其他会话修改的列不应被update覆盖
+                User other = new User();
+                other.setId(user.getId());
+                other.setUpdatedBy("other");
+                assertEquals(1, mapper.updateByIdSelective(other));
+
+                user.setName("ScanChanged");
+                assertArrayEquals(new String[] {"name"},
+                    Stream.of(ChangeTracker.changedFields(user)).map(Field::getName).toArray(String[]::new));
+                assertEquals(1, mapper.update(user));
+                assertEquals(0, mapper.update(user));
+                User updated = mapper.queryById(user.getId());
+                assertEquals("ScanChanged", updated.getName());
+                assertEquals("other", updated.getUpdatedBy());
+            }
+        }
+    }
+
+    @Test
+    void testUpsert() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User existing = newUser("Upserted");
+                existing.setId(5L);
+                mapper.upsert(existing);
+                assertEquals("Upserted", mapper.queryById(5L).getName());
+
+                User created = newUser("Created");
+                created.setId(1000L);
+                User updated = newUser("BatchUpserted");
+                updated.setId(1L);
+                mapper.upsertBatch(Arrays.asList(created, updated), Dialect.MYSQL);
+                assertEquals("Created", mapper.queryById(1000L).getName());
+                assertEquals("BatchUpserted", mapper.queryById(1L).getName());
+            }
+        }
+    }
+
+    @Test
+    void testLoadData() throws SQLException {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                int before = mapper.selectUsers().size();
+                List<User> users = new ArrayList<>();
+                users.add(newUser("Tab\tName"));
+                users.add(newUser("Line\nName"));
+                users.add(newUser("Back\\slash"));
+                users.add(newUser("\\N"));
+                users.add(newUser(null));
+                assertEquals(5L, MySQLLoadDataLoader.load(sqlSession, Mapper.class, users));
+                // 自增主键按导入顺序分配，按主键排序后新导入的行在最后
+                List<User> loaded = mapper.queryByCriteria(Criteria.all().orderBy("id"));
+                assertEquals(before + 5, loaded.size());
+                for (int i = 0; i < users.size(); i++) {
+                    assertEquals(users.get(i).getName(), loaded.get(before + i).getName());
+                }
+            }
+        }
+        // 超长的值被截断并产生警告，导入抛出异常，由调用方回滚
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            int before = sqlSession.getMapper(Mapper.class).selectUsers().size();
+            List<User> users = Collections.singletonList(newUser("NameLongerThanTwentyCharacters"));
+            assertThrows(SQLException.class, () -> MySQLLoadDataLoader.load(sqlSession, Mapper.class, users));
+            // 导入失败时同样关闭传入的Stream
+            AtomicBoolean closed = new AtomicBoolean();
+            assertThrows(SQLException.class, () -> MySQLLoadDataLoader.load(sqlSession, Mapper.class,
+                users.stream().onClose(() -> closed.set(true))));
+            assertTrue(closed.get());
+            sqlSession.rollback(true);
+            assertEquals(before, sqlSession.getMapper(Mapper.class).selectUsers().size());
+        }
+    }
+
+    @Test
+    void testScanAfter() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                List<User> first = mapper.scanAfter(null, 2);
+                assertEquals(2, first.size());
+                List<User> second = mapper.scanAfter(first.get(1).getId(), 2);
+                assertTrue(second.get(0).getId() > first.get(1).getId());
+
+                List<Long> ids = new ArrayList<>();
+                Long last = mapper.scanEach(null, 2, page -> page.forEach(user -> ids.add(user.getId())));
+                assertEquals(mapper.selectUsers().size(), ids.size());
+                assertEquals(ids.get(ids.size() - 1), last);
+                for (int i = 1; i < ids.size(); i++) {
+                    assertTrue(ids.get(i) > ids.get(i - 1));
+                }
+
+                int count = 0;
+                List<User> page = mapper.scanAfterCreatedTime(null, null, 2);
+                while (!page.isEmpty()) {
+                    count += page.size();
+                    User tail = page.get(page.size() - 1);
+                    page = mapper.scanAfterCreatedTime(tail.getCreatedTime(), tail.getId(), 2);
+                }
+                assertEquals(ids.size(), count);
+            }
+        }
+    }
+
+    @Test
+    void testScanAll() throws IOException {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                mapper.insert(newUser("Scanned"));
+                int count = 0;
+                try (Cursor<User> cursor = mapper.scanAll()) {
+                    for (User ignored : cursor) {
+                        count++;
+                    }
+                }
+                assertEquals(mapper.selectUsers().size(), count);
+
+                User condition = new User();
+                condition.setName("Scanned");
+                try (Cursor<User> cursor = mapper.scanWhere(condition)) {
+                    List<User> users = new ArrayList<>();
+                    cursor.forEach(users::add);
+                    assertEquals(1, users.size());
+                    assertEquals("Scanned", users.get(0).getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCompiledCursorFetchSize() {
+        Configuration configuration = new Configuration(sqlSessionFactory.getConfiguration().getEnvironment());
+        configuration.setDatabaseId("MySQL");
+        MapperSqlCompiler.addMapper(configuration, Mapper.class);
+        // 预编译的游标语句使用Integer.MIN_VALUE，Connector/J逐行流式读取
+        MappedStatement statement = configuration.getMappedStatement(Mapper.class.getName() + ".scanAll");
+        assertEquals(Integer.valueOf(Integer.MIN_VALUE), statement.getFetchSize());
+        assertEquals(Dialect.MYSQL.cursorFetchSize(), statement.getFetchSize().intValue());
+        // 未预编译的配置中仍为注解中的值
+        assertEquals(Integer.valueOf(Dialect.CURSOR_FETCH_SIZE), sqlSessionFactory.getConfiguration()
+            .getMappedStatement(Mapper.class.getName() + ".scanAll").getFetchSize());
+        try (SqlSession sqlSession = new SqlSessionFactoryBuilder().build(configuration).openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                int count = 0;
+                try (Cursor<User> cursor = mapper.scanAll()) {
+                    for (User user : cursor) {
+                        assertNotNull(user.getCreatedTime());
+                        count++;
+                    }
+                }
+                // 流式结果集关闭后才能在同一连接上执行其他语句
+                assertEquals(mapper.selectUsers().size(), count);
+            }
+        }
+    }
+
+    @Test
+    void testParallelScan() {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        long rows = ParallelScanner.scan(sqlSessionFactory, Mapper.class, 3, 2, user -> ids.add(user.getId()));
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                assertEquals(mapper.selectUsers().size(), rows);
+                assertEquals(rows, ids.size());
+            }
+        }
+    }
+
+    @Test
+    void testProjection() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User user = newUser("Projected");
+                mapper.insert(user);
+                List<UserName> names = mapper.queryNames(Arrays.asList(user.getId(), user.getId()));
+                assertEquals(1, names.size());
+                assertEquals(user.getId(), names.get(0).getId());
+                assertEquals("Projected", names.get(0).getName());
+
+                User projected = mapper.queryNameById(user.getId());
+                assertEquals("Projected", projected.getName());
+                assertNull(projected.getCreatedBy());
+            }
+        }
+    }
+
+    @Test
+    void testExists() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                assertTrue(mapper.existsById(1L));
+                assertFalse(mapper.existsById(-1L));
+                assertEquals(mapper.selectUsers().size(), mapper.countAll());
+
+                long[] ids = {3L, -1L, 1L, 3L};
+                BitSet expected = new BitSet();
+                expected.set(0);
+                expected.set(2);
+                expected.set(3);
+                assertEquals(expected, mapper.existsByIds(ids));
+                assertEquals(expected, mapper.existsByIds(ids, Dialect.MYSQL));
+            }
+        }
+    }
+
+    @Test
+    void testCriteria() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                List<User> users = mapper.selectUsers();
+                User first = users.get(0);
+                List<User> byName = mapper.queryByCriteria(where(eq("name", first.getName())));
+                assertEquals(users.stream().filter(u -> first.getName().equals(u.getName())).count(), byName.size());
+                assertEquals(byName.size(), mapper.countByCriteria(where(eq("name", first.getName()))));
+
+                List<User> page = mapper.queryByCriteria(
+                    where(gt("id", first.getId())).and(isNotNull("createdTime")).orderByDesc("id").limit(2));
+                assertTrue(page.size() <= 2);
+                page.forEach(u -> assertTrue(u.getId() > first.getId()));
+                if (page.size() == 2) {
+                    assertTrue(page.get(0).getId() > page.get(1).getId());
+                }
+
+                List<Long> ids = Arrays.asList(first.getId(), -1L, -2L);
+                assertEquals(1, mapper.countByCriteria(where(in("id", ids))));
+                assertEquals(0, mapper.countByCriteria(where(in("id", new ArrayList<Long>()))));
+                assertEquals(users.size(), mapper.countByCriteria(Criteria.all()));
+                assertEquals(1, mapper.queryByCriteria(where(or(eq("id", first.getId()), eq("id", -1L)))).size());
+                assertEquals(0, mapper.countByCriteria(where(isNull("name"))));
+            }
+        }
+    }
+
+    @Test
+    void testLambdaProperty() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User first = mapper.selectUsers().get(0);
+                assertEquals(mapper.countByCriteria(where(eq("name", first.getName()))),
+                    mapper.countByCriteria(where(eq(User::getName, first.getName()))));
+
+                List<User> names = mapper.queryByCriteria(
+                    Criteria.select(User::getId, User::getName).and(eq(User::getId, first.getId())));
+                assertEquals(1, names.size());
+                assertEquals(first.getName(), names.get(0).getName());
+                assertNull(names.get(0).getCreatedTime());
+
+                User user = mapper.queryById(first.getId());
+                user.setName(first.getName() + "-lambda");
+                user.setUpdatedBy("lambda");
+                assertEquals(1, mapper.updateFields(user, User::getName));
+                User updated = mapper.queryById(first.getId());
+                assertEquals(first.getName() + "-lambda", updated.getName());
+                assertEquals(first.getUpdatedBy(), updated.getUpdatedBy());
+                sqlSession.rollback(true);
+            }
+        }
+    }
+
+    @Test
+    void testInsertReturning() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User user = new User();
+                user.setName("Returning");
+                mapper.insertReturning(user, Dialect.MYSQL);
+                assertNotEquals(0L, user.getId());
+                assertNotNull(user.getCreatedTime());
+                assertEquals("unknown", user.getCreatedBy());
+
+                List<User> users = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    User u = new User();
+                    u.setName("Returning" + i);
+                    if (i % 2 == 0) {
+                        u.setCreatedBy("test");
+                    }
+                    users.add(u);
+                }
+                assertEquals(4, mapper.insertBatchReturning(users, Dialect.MYSQL));
+                for (int i = 0; i < users.size(); i++) {
+                    User u = users.get(i);
+                    assertNotEquals(0L, u.getId());
+                    assertNotNull(u.getUpdatedTime());
+                    assertEquals(i % 2 == 0 ? "test" : "unknown", u.getCreatedBy());
+                    assertEquals(u.getName(), mapper.queryById(u.getId()).getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testWarmUp() {
+        Map<Class<?>, Duration> timings = MapperWarmUp.warmUp(sqlSessionFactory.getConfiguration());
+        assertTrue(timings.containsKey(Mapper.class));
+        assertFalse(timings.get(Mapper.class).isNegative());
+    }
+
+    @Test
+    void testTableInfoRegistry() {
+        TableInfo table = TableInfo.forMapper(Mapper.class);
+        assertSame(table, TableInfo.forEntity(User.class));
+        assertSame(User.class, table.getEntityClass());
+        assertEquals("users", table.getTableName());
+        assertEquals("id", table.getPrimaryKeyColumn());
+    }
 }
@@ -1,30 +1,70 @@
 package cn.yusiwen.commons.mapper.query.opengauss;
 
+import static cn.yusiwen.commons.mapper.BaseDataTest.newUser;
+import static cn.yusiwen.commons.mapper.Criteria.eq;
+import static cn.yusiwen.commons.mapper.Criteria.gt;
+import static cn.yusiwen.commons.mapper.Criteria.in;
+import static cn.yusiwen.commons.mapper.Criteria.isNotNull;
+import static cn.yusiwen.commons.mapper.Criteria.isNull;
+import static cn.yusiwen.commons.mapper.Criteria.or;
+import static cn.yusiwen.commons.mapper.Criteria.where;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.lang.reflect.Proxy;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Paths;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.sql.DataSource;
 
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
 import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.apache.ibatis.type.StringTypeHandler;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
 import cn.yusiwen.commons.mapper.BaseDataTest;
+import cn.yusiwen.commons.mapper.BaseMapper.TableInfo;
+import cn.yusiwen.commons.mapper.ChangeTracker;
+import cn.yusiwen.commons.mapper.ChangeTrackingInterceptor;
+import cn.yusiwen.commons.mapper.Criteria;
+import cn.yusiwen.commons.mapper.Dialect;
+import cn.yusiwen.commons.mapper.EntityRowMappingInterceptor;
+import cn.yusiwen.commons.mapper.MapperSqlCompiler;
+import cn.yusiwen.commons.mapper.MapperWarmUp;
+import cn.yusiwen.commons.mapper.ParallelScanner;
 import cn.yusiwen.commons.mapper.query.Mapper;
 import cn.yusiwen.commons.mapper.query.User;
+import cn.yusiwen.commons.mapper.query.UserName;
 import cn.yusiwen.commons.mapper.testcontainers.CustomUnpooledDataSource;
 import cn.yusiwen.commons.mapper.testcontainers.OpenGaussContainer;
 
@@ -51,7 +91,11 @@ class OpenGaussQueryTest {
             container.getJdbcUrl(), container.getUsername(), container.getPassword());
         Environment environment = new Environment("test", new JdbcTransactionFactory(), dataSource);
         configuration.setEnvironment(environment);
-        configuration.addMapper(Mapper.class);
+        configuration.addInterceptor(new EntityRowMappingInterceptor());
+        configuration.addInterceptor(new ChangeTrackingInterceptor());
+        configuration.setDatabaseId("openGauss");
+        configuration.getTypeHandlerRegistry().register(String.class, new IndexCountingStringTypeHandler());
+        MapperSqlCompiler.addMapper(configuration, Mapper.class);
         sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
 
         BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
@@ -85,4 +129,418 @@ class OpenGaussQueryTest {
             }
         }
     }
+
+    @Test
+    void testInsertBatch() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                List<User> users = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    users.add(newUser("Batch" + i));
+                }
+                assertEquals(10, mapper.insertBatch(users, Dialect.OPENGAUSS));
+                for (User user : users) {
+                    assertNotEquals(0L, user.getId());
+                    assertEquals(user.getName(), mapper.queryById(user.getId()).getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testQueryByIds() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                List<User> users = mapper.queryByIds(Arrays.asList(1L, 3L, 5L, 3L));
+                assertEquals(3, users.size());
+                users.forEach(user -> assertEquals("User" + user.getId(), user.getName()));
+            }
+        }
+    }
+
+    @Test
+    void testQueryByIdsInOrder() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                List<User> users = mapper.queryByIdsInOrder(Arrays.asList(5L, 1L, 100L, 3L, 5L), Dialect.OPENGAUSS);
+                assertEquals(3, users.size());
+                assertEquals("User5", users.get(0).getName());
+                assertEquals("User1", users.get(1).getName());
+                assertEquals("User3", users.get(2).getName());
+                assertEquals(3, mapper.queryByIds(Arrays.asList(1L, 3L, 5L), Dialect.OPENGAUSS).size());
+            }
+        }
+    }
+
+    @Test
+    void testUpdateById() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User user = mapper.queryById(2L);
+                user.setName("Updated");
+                user.setUpdatedBy("test");
+                assertEquals(1, mapper.updateById(user));
+                assertEquals("Updated", mapper.queryById(2L).getName());
+                assertEquals("test", mapper.queryById(2L).getUpdatedBy());
+
+                User selective = new User();
+                selective.setId(3L);
+                selective.setName("Selective");
+                assertEquals(1, mapper.updateByIdSelective(selective));
+                assertEquals("Selective", mapper.queryById(3L).getName());
+                assertEquals("unknown", mapper.queryById(3L).getCreatedBy());
+            }
+        }
+    }
+
+    @Test
+    void testUpdateChanged() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User user = mapper.queryById(4L);
+                assertEquals(0, mapper.update(user));
+                user.setName("Changed");
+                assertEquals(1, mapper.update(user));
+                assertEquals(0, mapper.update(user));
+                assertEquals("Changed", mapper.queryById(4L).getName());
+            }
+        }
+    }
+
+    @Test
+    void testUpsert() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User existing = newUser("Upserted");
+                existing.setId(5L);
+                mapper.upsert(existing);
+                assertEquals("Upserted", mapper.queryById(5L).getName());
+
+                User created = newUser("Created");
+                created.setId(1000L);
+                User updated = newUser("BatchUpserted");
+                updated.setId(1L);
+                mapper.upsertBatch(Arrays.asList(created, updated), Dialect.OPENGAUSS);
+                assertEquals("Created", mapper.queryById(1000L).getName());
+                assertEquals("BatchUpserted", mapper.queryById(1L).getName());
+            }
+        }
+    }
+
+    @Test
+    void testScanAfter() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                List<User> first = mapper.scanAfter(null, 2);
+                assertEquals(2, first.size());
+                List<User> second = mapper.scanAfter(first.get(1).getId(), 2);
+                assertTrue(second.get(0).getId() > first.get(1).getId());
+
+                List<Long> ids = new ArrayList<>();
+                Long last = mapper.scanEach(null, 2, page -> page.forEach(user -> ids.add(user.getId())));
+                assertEquals(mapper.selectUsers().size(), ids.size());
+                assertEquals(ids.get(ids.size() - 1), last);
+                for (int i = 1; i < ids.size(); i++) {
+                    assertTrue(ids.get(i) > ids.get(i - 1));
+                }
+
+                int count = 0;
+                List<User> page = mapper.scanAfterCreatedTime(null, null, 2);
+                while (!page.isEmpty()) {
+                    count += page.size();
+                    User tail = page.get(page.size() - 1);
+                    page = mapper.scanAfterCreatedTime(tail.getCreatedTime(), tail.getId(), 2);
+                }
+                assertEquals(ids.size(), count);
+            }
+        }
+    }
+
+    @Test
+    void testScanAll() throws IOException {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                mapper.insert(newUser("Scanned"));
+                int count = 0;
+                try (Cursor<User> cursor = mapper.scanAll()) {
+                    for (User ignored : cursor) {
+                        count++;
+                    }
+                }
+                assertEquals(mapper.selectUsers().size(), count);
+
+                User condition = new User();
+                condition.setName("Scanned");
+                try (Cursor<User> cursor = mapper.scanWhere(condition)) {
+                    List<User> users = new ArrayList<>();
+                    cursor.forEach(users::add);
+                    assertEquals(1, users.size());
+                    assertEquals("Scanned", users.get(0).getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testParallelScan() {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        long rows = ParallelScanner.scan(sqlSessionFactory, Mapper.class, 3, 2, user -> ids.add(user.getId()));
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                assertEquals(mapper.selectUsers().size(), rows);
+                assertEquals(rows, ids.size());
+            }
+        }
+    }
+
+    @Test
+    void testProjection() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User user = newUser("Projected");
+                mapper.insert(user);
+                List<UserName> names = mapper.queryNames(Arrays.asList(user.getId(), user.getId()));
+                assertEquals(1, names.size());
+                assertEquals(user.getId(), names.get(0).getId());
+                assertEquals("Projected", names.get(0).getName());
+
+                User projected = mapper.queryNameById(user.getId());
+                assertEquals("Projected", projected.getName());
+                assertNull(projected.getCreatedBy());
+            }
+        }
+    }
+
+    @Test
+    void testExists() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                assertTrue(mapper.existsById(1L));
+                assertFalse(mapper.existsById(-1L));
+                assertEquals(mapper.selectUsers().size(), mapper.countAll());
+
+                long[] ids = {3L, -1L, 1L, 3L};
+                BitSet expected = new BitSet();
+                expected.set(0);
+                expected.set(2);
+                expected.set(3);
+                assertEquals(expected, mapper.existsByIds(ids));
+                assertEquals(expected, mapper.existsByIds(ids, Dialect.OPENGAUSS));
+            }
+        }
+    }
+
+    @Test
+    void testCriteria() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                List<User> users = mapper.selectUsers();
+                User first = users.get(0);
+                List<User> byName = mapper.queryByCriteria(where(eq("name", first.getName())));
+                assertEquals(users.stream().filter(u -> first.getName().equals(u.getName())).count(), byName.size());
+                assertEquals(byName.size(), mapper.countByCriteria(where(eq("name", first.getName()))));
+
+                List<User> page = mapper.queryByCriteria(
+                    where(gt("id", first.getId())).and(isNotNull("createdTime")).orderByDesc("id").limit(2));
+                assertTrue(page.size() <= 2);
+                page.forEach(u -> assertTrue(u.getId() > first.getId()));
+                if (page.size() == 2) {
+                    assertTrue(page.get(0).getId() > page.get(1).getId());
+                }
+
+                List<Long> ids = Arrays.asList(first.getId(), -1L, -2L);
+                assertEquals(1, mapper.countByCriteria(where(in("id", ids))));
+                assertEquals(0, mapper.countByCriteria(where(in("id", new ArrayList<Long>()))));
+                assertEquals(users.size(), mapper.countByCriteria(Criteria.all()));
+                assertEquals(1, mapper.queryByCriteria(where(or(eq("id", first.getId()), eq("id", -1L)))).size());
+                assertEquals(0, mapper.countByCriteria(where(isNull("name"))));
+            }
+        }
+    }
+
+    @Test
+    void testLambdaProperty() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User first = mapper.selectUsers().get(0);
+                assertEquals(mapper.countByCriteria(where(eq("name", first.getName()))),
+                    mapper.countByCriteria(where(eq(User::getName, first.getName()))));
+
+                List<User> names = mapper.queryByCriteria(
+                    Criteria.select(User::getId, User::getName).and(eq(User::getId, first.getId())));
+                assertEquals(1, names.size());
+                assertEquals(first.getName(), names.get(0).getName());
+                assertNull(names.get(0).getCreatedTime());
+
+                User user = mapper.queryById(first.getId());
+                user.setName(first.getName() + "-lambda");
+                user.setUpdatedBy("lambda");
+                assertEquals(1, mapper.updateFields(user, User::getName));
+                User updated = mapper.queryById(first.getId());
+                assertEquals(first.getName() + "-lambda", updated.getName());
+                assertEquals(first.getUpdatedBy(), updated.getUpdatedBy());
+                sqlSession.rollback(true);
+            }
+        }
+    }
+
+    @Test
+    void testInsertReturning() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User user = new User();
+                user.setName("Returning");
+                mapper.insertReturning(user, Dialect.OPENGAUSS);
+                assertNotEquals(0L, user.getId());
+                assertNotNull(user.getCreatedTime());
+                assertEquals("unknown", user.getCreatedBy());
+
+                List<User> users = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    User u = new User();
+                    u.setName("Returning" + i);
+                    if (i % 2 == 0) {
+                        u.setCreatedBy("test");
+                    }
+                    users.add(u);
+                }
+                assertEquals(4, mapper.insertBatchReturning(users, Dialect.OPENGAUSS));
+                for (int i = 0; i < users.size(); i++) {
+                    User u = users.get(i);
+                    assertNotEquals(0L, u.getId());
+                    assertNotNull(u.getUpdatedTime());
+                    assertEquals(i % 2 == 0 ? "test" : "unknown", u.getCreatedBy());
+                    assertEquals(u.getName(), mapper.queryById(u.getId()).getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testWarmUp() {
+        Map<Class<?>, Duration> timings = MapperWarmUp.warmUp(sqlSessionFactory.getConfiguration());
+        assertTrue(timings.containsKey(Mapper.class));
+        assertFalse(timings.get(Mapper.class).isNegative());
+    }
+
+    @Test
+    void testTableInfoRegistry() {
+        TableInfo table = TableInfo.forMapper(Mapper.class);
+        assertSame(table, TableInfo.forEntity(User.class));
+        assertSame(User.class, table.getEntityClass());
+        assertEquals("users", table.getTableName());
+        assertEquals("id", table.getPrimaryKeyColumn());
+    }
+
+    @Test
+    void testEntityResultMap() {
+        MappedStatement statement =
+            sqlSessionFactory.getConfiguration().getMappedStatement(Mapper.class.getName() + ".queryById");
+        assertEquals(Mapper.class.getName() + "." + MapperSqlCompiler.ENTITY_RESULT_MAP,
+            statement.getResultMaps().get(0).getId());
+        assertFalse(statement.getBoundSql(1L).getSql().contains(" AS "));
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            long id = mapper.selectUsers().get(0).getId();
+            // queryByIdList的SQL带别名，queryById的SQL不带别名，都由实体ResultMap映射
+            User first = mapper.queryByIdList(Arrays.asList(id)).get(0);
+            assertNotNull(first.getCreatedTime());
+            for (User user : Arrays.asList(mapper.queryById(id), mapper.queryByCriteria(where(eq("id", id))).get(0))) {
+                assertEquals(first.getId(), user.getId());
+                assertEquals(first.getName(), user.getName());
+                assertEquals(first.getCreatedTime(), user.getCreatedTime());
+                assertEquals(first.getUpdatedBy(), user.getUpdatedBy());
+            }
+        }
+    }
+
+    @Test
+    void testEntityRowMapping() throws IOException {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            // selectUsers不使用实体ResultMap，由MyBatis按列名映射
+            int reads = IndexCountingStringTypeHandler.READS.get();
+            List<User> users = mapper.selectUsers();
+            assertEquals(reads, IndexCountingStringTypeHandler.READS.get());
+            List<User> mapped = mapper.queryByCriteria(Criteria.all().orderBy("id"));
+            assertEquals(users.size(), mapped.size());
+            // 按列序号读取说明由EntityRowMappingInterceptor映射
+            assertTrue(IndexCountingStringTypeHandler.READS.get() > reads);
+            for (User user : mapped) {
+                assertNotNull(user.getCreatedTime());
+                assertTrue(ChangeTracker.isTracked(user));
+            }
+            assertNull(mapper.queryById(-1L));
+            try (Cursor<User> cursor = mapper.scanAll()) {
+                assertFalse(cursor.isOpen());
+                int count = 0;
+                for (User user : cursor) {
+                    assertTrue(ChangeTracker.isTracked(user));
+                    assertEquals(mapped.get(count).getId(), user.getId());
+                    assertEquals(mapped.get(count).getName(), user.getName());
+                    count++;
+                }
+                assertEquals(mapped.size(), count);
+                assertTrue(cursor.isConsumed());
+                assertEquals(count - 1, cursor.getCurrentIndex());
+            }
+        }
+    }
+
+    @Test
+    void testEntityRowMappingRowBounds() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            // 带RowBounds的调用由MyBatis按列名映射
+            int reads = IndexCountingStringTypeHandler.READS.get();
+            List<User> users = sqlSession.selectList(Mapper.class.getName() + ".queryByCriteria",
+                Criteria.all().orderBy("id"), new RowBounds(1, 2));
+            assertEquals(2, users.size());
+            assertEquals(reads, IndexCountingStringTypeHandler.READS.get());
+            // 之后的查询仍直接映射
+            assertNotNull(sqlSession.getMapper(Mapper.class).queryById(users.get(0).getId()));
+            assertTrue(IndexCountingStringTypeHandler.READS.get() > reads);
+        }
+    }
+
+    @Test
+    void testEntityRowMappingOrder() {
+        // 已被其他插件包装的ResultSetHandler不再拦截
+        Object wrapped = Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {ResultSetHandler.class},
+            (proxy, method, args) -> null);
+        assertSame(wrapped, new EntityRowMappingInterceptor().plugin(wrapped));
+
+        // 在其他ResultSetHandler插件之后注册时，注册mapper时抛出异常
+        Configuration configuration = new Configuration(sqlSessionFactory.getConfiguration().getEnvironment());
+        configuration.addInterceptor(new ChangeTrackingInterceptor());
+        configuration.addInterceptor(new EntityRowMappingInterceptor());
+        assertThrows(IllegalStateException.class, () -> MapperSqlCompiler.addMapper(configuration, Mapper.class));
+    }
+
+    /**
+     * 记录按列序号读取次数的String TypeHandler，MyBatis的结果处理按列名读取
+     */
+    public static class IndexCountingStringTypeHandler extends StringTypeHandler {
+
+        static final AtomicInteger READS = new AtomicInteger();
+
+        @Override
+        public String getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+            READS.incrementAndGet();
+            return super.getNullableResult(rs, columnIndex);
+        }
+    }
 }
@@ -1,15 +1,50 @@
 package cn.yusiwen.commons.mapper.query.pg;
 
+import static cn.yusiwen.commons.mapper.BaseDataTest.newUser;
+import static cn.yusiwen.commons.mapper.Criteria.eq;
+import static cn.yusiwen.commons.mapper.Criteria.gt;
+import static cn.yusiwen.commons.mapper.Criteria.in;
+import static cn.yusiwen.commons.mapper.Criteria.isNotNull;
+import static cn.yusiwen.commons.mapper.Criteria.isNull;
+import static cn.yusiwen.commons.mapper.Criteria.or;
+import static cn.yusiwen.commons.mapper.Criteria.where;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import javax.sql.DataSource;
 
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
 import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -22,8 +57,22 @@ import org.junit.jupiter.api.Test;
 import org.testcontainers.containers.PostgreSQLContainer;
 
 import cn.yusiwen.commons.mapper.BaseDataTest;
+import cn.yusiwen.commons.mapper.BaseMapper.TableInfo;
+import cn.yusiwen.commons.mapper.ChangeTracker;
+import cn.yusiwen.commons.mapper.ChangeTrackingInterceptor;
+import cn.yusiwen.commons.mapper.Criteria;
+import cn.yusiwen.commons.mapper.Dialect;
+import cn.yusiwen.commons.mapper.JSONTypeHandler;
+import cn.yusiwen.commons.mapper.JSONValue;
+import cn.yusiwen.commons.mapper.MapperSqlCompiler;
+import cn.yusiwen.commons.mapper.MapperWarmUp;
+import cn.yusiwen.commons.mapper.ParallelScanner;
+import cn.yusiwen.commons.mapper.PgCopyLoader;
 import cn.yusiwen.commons.mapper.query.Mapper;
+import cn.yusiwen.commons.mapper.query.Profile;
+import cn.yusiwen.commons.mapper.query.ProfileMapper;
 import cn.yusiwen.commons.mapper.query.User;
+import cn.yusiwen.commons.mapper.query.UserName;
 
 @Tag("PgQueryTest")
 public class PgQueryTest {
@@ -44,7 +93,10 @@ public class PgQueryTest {
             container.getUsername(), container.getPassword());
         Environment environment = new Environment("test", new JdbcTransactionFactory(), dataSource);
         configuration.setEnvironment(environment);
-        configuration.addMapper(Mapper.class);
+        configuration.addInterceptor(new ChangeTrackingInterceptor());
+        configuration.setDatabaseId("PostgreSQL");
+        MapperSqlCompiler.addMapper(configuration, Mapper.class);
+        MapperSqlCompiler.addMapper(configuration, ProfileMapper.class);
         sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
 
         BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
@@ -79,4 +131,529 @@ public class PgQueryTest {
         }
     }
 
+    @Test
+    void testInsertBatch() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                List<User> users = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    users.add(newUser("Batch" + i));
+                }
+                assertEquals(10, mapper.insertBatch(users, Dialect.POSTGRESQL));
+                for (User user : users) {
+                    assertNotEquals(0L, user.getId());
+                    assertEquals(user.getName(), mapper.queryById(user.getId()).getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testQueryByIds() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                List<User> users = mapper.queryByIds(Arrays.asList(1L, 3L, 5L, 3L));
+                assertEquals(3, users.size());
+                users.forEach(user -> assertEquals("User" + user.getId(), user.getName()));
+            }
+        }
+    }
+
+    @Test
+    void testQueryByIdsInOrder() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                List<User> users = mapper.queryByIdsInOrder(Arrays.asList(5L, 1L, 100L, 3L, 5L), Dialect.POSTGRESQL);
+                assertEquals(3, users.size());
+                assertEquals("User5", users.get(0).getName());
+                assertEquals("User1", users.get(1).getName());
+                assertEquals("User3", users.get(2).getName());
+                assertEquals(3, mapper.queryByIds(Arrays.asList(1L, 3L, 5L), Dialect.POSTGRESQL).size());
+            }
+        }
+    }
+
+    @Test
+    void testUpdateById() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User user = mapper.queryById(2L);
+                user.setName("Updated");
+                user.setUpdatedBy("test");
+                assertEquals(1, mapper.updateById(user));
+                assertEquals("Updated", mapper.queryById(2L).getName());
+                assertEquals("test", mapper.queryById(2L).getUpdatedBy());
+
+                User selective = new User();
+                selective.setId(3L);
+                selective.setName("Selective");
+                assertEquals(1, mapper.updateByIdSelective(selective));
+                assertEquals("Selective", mapper.queryById(3L).getName());
+                assertEquals("unknown", mapper.queryById(3L).getCreatedBy());
+            }
+        }
+    }
+
+    @Test
+    void testUpdateChanged() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User user = mapper.queryById(4L);
+                assertEquals(0, mapper.update(user));
+                user.setName("Changed");
+                assertEquals(1, mapper.update(user));
+                assertEquals(0, mapper.update(user));
+                assertEquals("Changed", mapper.queryById(4L).getName());
+            }
+        }
+    }
+
+    @Test
+    void testUpdateScanned() throws IOException {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                mapper.insert(newUser("ScanTracked"));
+                User condition = new User();
+                condition.setName("ScanTracked");
+                User user;
+                try (Cursor<User> cursor = mapper.scanWhere(condition)) {
+                    user = cursor.iterator().next();
+                }
+                assertTrue(ChangeTracker.isTracked(user));
+
+                // 扫描后其他会话修改的列不应被update覆盖
+                User other = new User();
+                other.setId(user.getId());
+                other.setUpdatedBy("other");
+                assertEquals(1, mapper.updateByIdSelective(other));
+
+                user.setName("ScanChanged");
+                assertArrayEquals(new String[] {"name"},
+                    Stream.of(ChangeTracker.changedFields(user)).map(Field::getName).toArray(String[]::new));
+                assertEquals(1, mapper.update(user));
+                assertEquals(0, mapper.update(user));
+                User updated = mapper.queryById(user.getId());
+                assertEquals("ScanChanged", updated.getName());
+                assertEquals("other", updated.getUpdatedBy());
+            }
+        }
+    }
+
+    @Test
+    void testUpsert() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User existing = newUser("Upserted");
+                existing.setId(5L);
+                mapper.upsert(existing);
+                assertEquals("Upserted", mapper.queryById(5L).getName());
+
+                User created = newUser("Created");
+                created.setId(1000L);
+                User updated = newUser("BatchUpserted");
+                updated.setId(1L);
+                mapper.upsertBatch(Arrays.asList(created, updated), Dialect.POSTGRESQL);
+                assertEquals("Created", mapper.queryById(1000L).getName());
+                assertEquals("BatchUpserted", mapper.queryById(1L).getName());
+            }
+        }
+    }
+
+    @Test
+    void testUpsertWithoutDatabaseId() {
+        try (SqlSession sqlSession = withoutDatabaseId().openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                // 未配置databaseId时SQL仍按传入的方言生成
+                User created = newUser("CreatedWithoutId");
+                created.setId(1001L);
+                User updated = newUser("UpsertedWithoutId");
+                updated.setId(2L);
+                assertEquals(2, mapper.upsertBatch(Arrays.asList(created, updated), Dialect.POSTGRESQL));
+                assertEquals("CreatedWithoutId", mapper.queryById(1001L).getName());
+                assertEquals("UpsertedWithoutId", mapper.queryById(2L).getName());
+            }
+        }
+    }
+
+    @Test
+    void testCopyIn() throws SQLException {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                int before = mapper.selectUsers().size();
+                long rows = PgCopyLoader.copyIn(sqlSession, Mapper.class,
+                    IntStream.range(0, 1000).mapToObj(i -> newUser(i % 10 == 0 ? null : "Copy" + i)));
+                assertEquals(1000L, rows);
+                List<User> users = mapper.selectUsers();
+                assertEquals(before + 1000, users.size());
+                assertEquals(100, users.stream().filter(user -> user.getName() == null).count());
+            }
+        }
+    }
+
+    @Test
+    void testScanAfter() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                List<User> first = mapper.scanAfter(null, 2);
+                assertEquals(2, first.size());
+                List<User> second = mapper.scanAfter(first.get(1).getId(), 2);
+                assertTrue(second.get(0).getId() > first.get(1).getId());
+
+                List<Long> ids = new ArrayList<>();
+                Long last = mapper.scanEach(null, 2, page -> page.forEach(user -> ids.add(user.getId())));
+                assertEquals(mapper.selectUsers().size(), ids.size());
+                assertEquals(ids.get(ids.size() - 1), last);
+                for (int i = 1; i < ids.size(); i++) {
+                    assertTrue(ids.get(i) > ids.get(i - 1));
+                }
+
+                int count = 0;
+                List<User> page = mapper.scanAfterCreatedTime(null, null, 2);
+                while (!page.isEmpty()) {
+                    count += page.size();
+                    User tail = page.get(page.size() - 1);
+                    page = mapper.scanAfterCreatedTime(tail.getCreatedTime(), tail.getId(), 2);
+                }
+                assertEquals(ids.size(), count);
+            }
+        }
+    }
+
+    @Test
+    void testScanAll() throws IOException {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                mapper.insert(newUser("Scanned"));
+                int count = 0;
+                try (Cursor<User> cursor = mapper.scanAll()) {
+                    for (User ignored : cursor) {
+                        count++;
+                    }
+                }
+                assertEquals(mapper.selectUsers().size(), count);
+
+                User condition = new User();
+                condition.setName("Scanned");
+                try (Cursor<User> cursor = mapper.scanWhere(condition)) {
+                    List<User> users = new ArrayList<>();
+                    cursor.forEach(users::add);
+                    assertEquals(1, users.size());
+                    assertEquals("Scanned", users.get(0).getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testParallelScan() {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        long rows = ParallelScanner.scan(sqlSessionFactory, Mapper.class, 3, 2, user -> ids.add(user.getId()));
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                assertEquals(mapper.selectUsers().size(), rows);
+                assertEquals(rows, ids.size());
+            }
+        }
+    }
+
+    @Test
+    void testProjection() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User user = newUser("Projected");
+                mapper.insert(user);
+                List<UserName> names = mapper.queryNames(Arrays.asList(user.getId(), user.getId()));
+                assertEquals(1, names.size());
+                assertEquals(user.getId(), names.get(0).getId());
+                assertEquals("Projected", names.get(0).getName());
+
+                User projected = mapper.queryNameById(user.getId());
+                assertEquals("Projected", projected.getName());
+                assertNull(projected.getCreatedBy());
+            }
+        }
+    }
+
+    @Test
+    void testExists() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                assertTrue(mapper.existsById(1L));
+                assertFalse(mapper.existsById(-1L));
+                assertEquals(mapper.selectUsers().size(), mapper.countAll());
+
+                long[] ids = {3L, -1L, 1L, 3L};
+                BitSet expected = new BitSet();
+                expected.set(0);
+                expected.set(2);
+                expected.set(3);
+                assertEquals(expected, mapper.existsByIds(ids));
+                assertEquals(expected, mapper.existsByIds(ids, Dialect.POSTGRESQL));
+            }
+        }
+    }
+
+    @Test
+    void testCriteria() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                List<User> users = mapper.selectUsers();
+                User first = users.get(0);
+                List<User> byName = mapper.queryByCriteria(where(eq("name", first.getName())));
+                assertEquals(users.stream().filter(u -> first.getName().equals(u.getName())).count(), byName.size());
+                assertEquals(byName.size(), mapper.countByCriteria(where(eq("name", first.getName()))));
+
+                List<User> page = mapper.queryByCriteria(
+                    where(gt("id", first.getId())).and(isNotNull("createdTime")).orderByDesc("id").limit(2));
+                assertTrue(page.size() <= 2);
+                page.forEach(u -> assertTrue(u.getId() > first.getId()));
+                if (page.size() == 2) {
+                    assertTrue(page.get(0).getId() > page.get(1).getId());
+                }
+
+                List<Long> ids = Arrays.asList(first.getId(), -1L, -2L);
+                assertEquals(1, mapper.countByCriteria(where(in("id", ids))));
+                assertEquals(0, mapper.countByCriteria(where(in("id", new ArrayList<Long>()))));
+                // 超过IN列表最大长度时拆分为以OR连接的多个IN条件
+                List<Long> many = new ArrayList<>();
+                for (long i = 1; i < 1000; i++) {
+                    many.add(-i);
+                }
+                many.add(first.getId());
+                assertEquals(1, mapper.countByCriteria(where(in("id", many))));
+                assertEquals(users.size(), mapper.countByCriteria(Criteria.all()));
+                assertEquals(1, mapper.queryByCriteria(where(or(eq("id", first.getId()), eq("id", -1L)))).size());
+                assertEquals(0, mapper.countByCriteria(where(isNull("name"))));
+                // 没有子条件的OR条件恒为假
+                assertEquals(0, mapper.countByCriteria(where(or())));
+                assertEquals(0, mapper.countByCriteria(where(isNotNull("id")).and(or())));
+            }
+        }
+    }
+
+    @Test
+    void testLambdaProperty() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User first = mapper.selectUsers().get(0);
+                assertEquals(mapper.countByCriteria(where(eq("name", first.getName()))),
+                    mapper.countByCriteria(where(eq(User::getName, first.getName()))));
+
+                List<User> names = mapper.queryByCriteria(
+                    Criteria.select(User::getId, User::getName).and(eq(User::getId, first.getId())));
+                assertEquals(1, names.size());
+                assertEquals(first.getName(), names.get(0).getName());
+                assertNull(names.get(0).getCreatedTime());
+
+                User user = mapper.queryById(first.getId());
+                user.setName(first.getName() + "-lambda");
+                user.setUpdatedBy("lambda");
+                assertEquals(1, mapper.updateFields(user, User::getName));
+                User updated = mapper.queryById(first.getId());
+                assertEquals(first.getName() + "-lambda", updated.getName());
+                assertEquals(first.getUpdatedBy(), updated.getUpdatedBy());
+                sqlSession.rollback(true);
+            }
+        }
+    }
+
+    @Test
+    void testInsertReturning() {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                User user = new User();
+                user.setName("Returning");
+                mapper.insertReturning(user, Dialect.POSTGRESQL);
+                assertNotEquals(0L, user.getId());
+                assertNotNull(user.getCreatedTime());
+                assertEquals("unknown", user.getCreatedBy());
+
+                List<User> users = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    User u = new User();
+                    u.setName("Returning" + i);
+                    if (i % 2 == 0) {
+                        u.setCreatedBy("test");
+                    }
+                    users.add(u);
+                }
+                assertEquals(4, mapper.insertBatchReturning(users, Dialect.POSTGRESQL));
+                for (int i = 0; i < users.size(); i++) {
+                    User u = users.get(i);
+                    assertNotEquals(0L, u.getId());
+                    assertNotNull(u.getUpdatedTime());
+                    assertEquals(i % 2 == 0 ? "test" : "unknown", u.getCreatedBy());
+                    assertEquals(u.getName(), mapper.queryById(u.getId()).getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testInsertReturningWithoutDatabaseId() {
+        try (SqlSession sqlSession = withoutDatabaseId().openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            {
+                // 未经预编译的mapper只回填主键，其余字段插入后再查询一次
+                List<User> users = new ArrayList<>();
+                for (int i = 0; i < 7; i++) {
+                    User u = new User();
+                    u.setName("ReturningWithoutId" + i);
+                    users.add(u);
+                }
+                assertEquals(7, mapper.insertBatchReturning(users, Dialect.POSTGRESQL));
+                for (User u : users) {
+                    assertNotEquals(0L, u.getId());
+                    assertNotNull(u.getCreatedTime());
+                    assertEquals("unknown", u.getCreatedBy());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testWarmUp() {
+        Map<Class<?>, Duration> timings = MapperWarmUp.warmUp(sqlSessionFactory.getConfiguration());
+        assertTrue(timings.containsKey(Mapper.class));
+        assertFalse(timings.get(Mapper.class).isNegative());
+
+        Configuration configuration = new Configuration(sqlSessionFactory.getConfiguration().getEnvironment());
+        configuration.setDatabaseId("PostgreSQL");
+        MapperSqlCompiler.addMapper(configuration, Mapper.class);
+        assertEquals(Collections.singleton(Mapper.class), MapperWarmUp.warmUp(configuration).keySet());
+        // 预热使用配置中预编译的语句，实体查询的SQL不带别名
+        MappedStatement statement = configuration.getMappedStatement(Mapper.class.getName() + ".queryById");
+        assertTrue(statement.getSqlSource() instanceof StaticSqlSource);
+        assertFalse(statement.getBoundSql(1L).getSql().contains(" AS "));
+    }
+
+    @Test
+    void testTableInfoRegistry() {
+        TableInfo table = TableInfo.forMapper(Mapper.class);
+        assertSame(table, TableInfo.forEntity(User.class));
+        assertSame(User.class, table.getEntityClass());
+        assertEquals("users", table.getTableName());
+        assertEquals("id", table.getPrimaryKeyColumn());
+    }
+
+    @Test
+    void testEntityResultMap() {
+        MappedStatement statement =
+            sqlSessionFactory.getConfiguration().getMappedStatement(Mapper.class.getName() + ".queryById");
+        // 配置中的语句已替换为预编译的静态SQL，执行时不再调用Provider
+        assertTrue(statement.getSqlSource() instanceof StaticSqlSource);
+        assertEquals(Mapper.class.getName() + "." + MapperSqlCompiler.ENTITY_RESULT_MAP,
+            statement.getResultMaps().get(0).getId());
+        assertFalse(statement.getBoundSql(1L).getSql().contains(" AS "));
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Mapper mapper = sqlSession.getMapper(Mapper.class);
+            long id = mapper.selectUsers().get(0).getId();
+            // queryByIdList的SQL带别名，queryById的SQL不带别名，都由实体ResultMap映射
+            User first = mapper.queryByIdList(Arrays.asList(id)).get(0);
+            assertNotNull(first.getCreatedTime());
+            for (User user : Arrays.asList(mapper.queryById(id), mapper.queryByCriteria(where(eq("id", id))).get(0))) {
+                assertEquals(first.getId(), user.getId());
+                assertEquals(first.getName(), user.getName());
+                assertEquals(first.getCreatedTime(), user.getCreatedTime());
+                assertEquals(first.getUpdatedBy(), user.getUpdatedBy());
+            }
+        }
+    }
+
+    @Test
+    void testJSONValue() throws SQLException {
+        assertTrue(sqlSessionFactory.getConfiguration().getTypeHandlerRegistry().hasTypeHandler(JSONValue.class));
+        JSONTypeHandler handler = new JSONTypeHandler();
+        JSONValue value = JSONValue.of("{\"name\": \"用户\", \"tags\": [1, 2]}");
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            Connection connection = sqlSession.getConnection();
+            try (PreparedStatement ps = connection.prepareStatement("SELECT convert_from(?, 'UTF8')::JSONB")) {
+                handler.setParameter(ps, 1, value, null);
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                    JSONValue result = handler.getResult(rs, 1);
+                    // jsonb规范化后的文本与写入的相同
+                    assertEquals(value, result);
+                    assertEquals(value.toString(), result.toString());
+                    Function<byte[], String> parser = bytes -> new String(bytes, StandardCharsets.UTF_8);
+                    assertSame(result.parse(parser), result.parse(parser));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testJSONValueEntity() throws SQLException {
+        MappedStatement statement =
+            sqlSessionFactory.getConfiguration().getMappedStatement(ProfileMapper.class.getName() + ".queryById");
+        assertTrue(statement.getResultMaps().get(0).getResultMappings().stream()
+            .anyMatch(mapping -> "data".equals(mapping.getProperty())
+                && mapping.getTypeHandler() instanceof JSONTypeHandler));
+        // 与jsonb规范化后的文本相同，读回后按字节比较相等
+        JSONValue value = JSONValue.of("{\"age\": 20, \"name\": \"用户\"}");
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+            ProfileMapper mapper = sqlSession.getMapper(ProfileMapper.class);
+            {
+                // insert参数为convert_from(#{data}, 'UTF8')::JSONB
+                Profile profile = new Profile();
+                profile.setName("JSON");
+                profile.setData(value);
+                mapper.insertReturning(profile, Dialect.POSTGRESQL);
+
+                Profile loaded = mapper.queryById(profile.getId());
+                assertEquals(value, loaded.getData());
+                assertEquals(value.toString(), loaded.getData().toString());
+
+                // 内容相同的JSONValue不算修改
+                loaded.setData(JSONValue.of(value.toString()));
+                assertEquals(0, mapper.update(loaded));
+                JSONValue changed = JSONValue.of("{\"age\": 21, \"name\": \"用户\"}");
+                loaded.setData(changed);
+                assertArrayEquals(new String[] {"data"},
+                    Stream.of(ChangeTracker.changedFields(loaded)).map(Field::getName).toArray(String[]::new));
+                assertEquals(1, mapper.update(loaded));
+                assertEquals(changed, mapper.queryById(profile.getId()).getData());
+
+                // COPY以jsonb二进制格式写入
+                Profile copied = new Profile();
+                copied.setName("JSONCopy");
+                copied.setData(value);
+                // 导入结束后关闭传入的Stream
+                AtomicBoolean closed = new AtomicBoolean();
+                assertEquals(1L, PgCopyLoader.copyIn(sqlSession, ProfileMapper.class,
+                    Stream.of(copied).onClose(() -> closed.set(true))));
+                assertTrue(closed.get());
+                assertEquals(value, mapper.queryByCriteria(where(eq("name", "JSONCopy"))).get(0).getData());
+                // 条件值与插入时相同，转换为JSONB后比较
+                assertEquals(1, mapper.countByCriteria(where(eq("data", value)).and(eq("name", "JSONCopy"))));
+                assertEquals(0, mapper.countByCriteria(where(eq("data", changed)).and(eq("name", "JSONCopy"))));
+            }
+        }
+    }
+
+    /**
+     * 使用同一数据源创建未配置databaseId、未预编译mapper的SqlSessionFactory
+     */
+    private static SqlSessionFactory withoutDatabaseId() {
+        Configuration configuration = new Configuration(sqlSessionFactory.getConfiguration().getEnvironment());
+        configuration.addMapper(Mapper.class);
+        return new SqlSessionFactoryBuilder().build(configuration);
+    }
 }
@@ -16,3 +16,17 @@ insert into users(name) values ('User2');
 insert into users(name) values ('User3');
 insert into users(name) values ('User4');
 insert into users(name) values ('User5');
+
+drop table profiles if exists;
+
+create table profiles
+(
+    id   bigserial not null,
+    name varchar(20),
+    data jsonb,
+    created_time timestamp default now() not null,
+    created_by varchar(32) default 'unknown' not null,
+    updated_time timestamp default now() not null,
+    updated_by varchar(32) default 'unknown' not null,
+    constraint profiles_key primary key (id)
+);